@@ -2,7 +2,6 @@ package eventsfeature;
 
 import java.util.Arrays;
 import java.util.HashSet;
-import java.util.Set;
 
 /**
  * Represents an Auditorium version of a Room. An Auditorium has a set number of seats, (i.e. the capacity of an event
@@ -15,9 +14,11 @@ public class AuditoriumRoom extends Room {
      * Constructs an instance of AuditoriumRoom.
      * @param roomNum The room number of this AuditoriumRoom.
      * @param capacity The capacity of this AuditoriumRoom.
+     * @param featureRegistry The registry used to encode the room's features.
      */
-    protected AuditoriumRoom(int roomNum, int capacity) {
-        super(roomNum, capacity, new HashSet<>(Arrays.asList("rows of seating", "chairs", "projectors", "computers")));
+    protected AuditoriumRoom(int roomNum, int capacity, FeatureRegistry featureRegistry) {
+        super(roomNum, capacity, new HashSet<>(Arrays.asList("rows of seating", "chairs", "projectors", "computers")),
+                featureRegistry);
     }
 
     /**
@@ -29,21 +30,28 @@ public class AuditoriumRoom extends Room {
         return "AU"+getRoomNum();
     }
 
+    /**
+     * Gets the largest number of attendees an event held in this AuditoriumRoom can have.
+     * @return The largest event capacity this room can hold.
+     */
+    @Override
+    protected int getEventCapacity() {
+        // auditorium rooms cannot take on any more than the capacity
+        return getCapacity();
+    }
+
     /**
      * Checks whether this AuditoriumRoom can hold an event, based on a set of requirements and a capacity.
-     * @param requirements Given requirements.
+     * @param requirements Given requirements, as a bitmask from the FeatureRegistry.
      * @param capacity The capacity of the event.
      * @return Whether or not all the requirements are in the room's list, and the capacity is no more than the room can
      * hold at once.
      */
     @Override
-    protected boolean checkRequirements(Set<String> requirements, int capacity) {
-        for (String s : requirements) {
-            if (!getFeatures().contains(s))
-                return false;
-        }
-        // auditorium rooms cannot take on any more than the capacity
-        return capacity <= getCapacity();
+    protected boolean checkRequirements(long requirements, int capacity) {
+        if (!hasFeatures(requirements))
+            return false;
+        return capacity <= getEventCapacity();
     }
 
 }
@@ -0,0 +1,132 @@
+package eventsfeature;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+
+/**
+ * Writes Events as an iCalendar (RFC 5545) calendar, one VEVENT at a time, straight to a Writer. Start times are
+ * written as local times, since the system does not keep track of time zones.
+ * @author Kevin Cecco, Daniel Chan, William Wang
+ */
+public class CalendarWriter {
+
+    private static final String CRLF = "\r\n";
+    private static final int MAX_LINE_LENGTH = 75;
+    private static final String UID_DOMAIN = "@conference";
+    private static final DateTimeFormatter LOCAL_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final DateTimeFormatter UTC_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+
+    private final Writer out;
+    private final String timestamp;
+
+    /**
+     * Constructs a CalendarWriter.
+     * @param out The Writer to write the calendar to.
+     */
+    protected CalendarWriter(Writer out) {
+        this.out = out;
+        this.timestamp = UTC_FORMAT.format(LocalDateTime.now(ZoneOffset.UTC));
+    }
+
+    /**
+     * Writes the start of the calendar.
+     * @throws IOException If the calendar cannot be written.
+     */
+    protected void writeHeader() throws IOException {
+        writeLine("BEGIN:VCALENDAR");
+        writeLine("VERSION:2.0");
+        writeLine("PRODID:-//conference//events//EN");
+    }
+
+    /**
+     * Writes an Event as a VEVENT.
+     * @param view A view of the Event.
+     * @throws IOException If the calendar cannot be written.
+     */
+    protected void writeEvent(EventView view) throws IOException {
+        writeLine("BEGIN:VEVENT");
+        writeLine("UID:event-" + view.getEventId() + UID_DOMAIN);
+        writeLine("DTSTAMP:" + timestamp);
+        writeLine("DTSTART:" + LOCAL_FORMAT.format(view.getStartTime()));
+        writeLine("DURATION:PT" + view.getDuration() + "H");
+        writeLine("SUMMARY:" + escape(view.getName()));
+        writeLine("LOCATION:" + escape(view.getRoomCode()));
+        if (!view.getSpeakerNames().isEmpty())
+            writeLine("DESCRIPTION:" + escape("Speakers: " + view.getSpeakerNames()));
+        writeLine("END:VEVENT");
+    }
+
+    /**
+     * Writes a recurring series as a single VEVENT with a recurrence rule. Occurrences that are cancelled, or that have
+     * become Events and are written as Events of their own, are left out with EXDATE.
+     * @param series The series.
+     * @param roomCode The code of the room the series is held in.
+     * @throws IOException If the calendar cannot be written.
+     */
+    protected void writeSeries(EventSeries series, String roomCode) throws IOException {
+        writeLine("BEGIN:VEVENT");
+        writeLine("UID:series-" + series.getSeriesId() + UID_DOMAIN);
+        writeLine("DTSTAMP:" + timestamp);
+        writeLine("DTSTART:" + LOCAL_FORMAT.format(series.getFirstStartTime()));
+        writeLine("DURATION:PT" + series.getDuration() + "H");
+        writeLine("RRULE:FREQ=DAILY;INTERVAL=" + series.getIntervalDays() + ";COUNT=" + series.getNumOccurrences());
+        writeExceptionDates(series.getExceptions());
+        writeExceptionDates(series.getMaterialized().keySet());
+        writeLine("SUMMARY:" + escape(series.getName()));
+        writeLine("LOCATION:" + escape(roomCode));
+        if (!series.getSpeakerNames().isEmpty())
+            writeLine("DESCRIPTION:" + escape("Speakers: " + series.getSpeakerNames()));
+        writeLine("END:VEVENT");
+    }
+
+    /**
+     * Writes the end of the calendar and flushes the Writer.
+     * @throws IOException If the calendar cannot be written.
+     */
+    protected void writeFooter() throws IOException {
+        writeLine("END:VCALENDAR");
+        out.flush();
+    }
+
+    /**
+     * Writes an EXDATE line for each of some occurrence start times.
+     * @param times The start times.
+     * @throws IOException If the calendar cannot be written.
+     */
+    private void writeExceptionDates(Collection<LocalDateTime> times) throws IOException {
+        for (LocalDateTime time : times)
+            writeLine("EXDATE:" + LOCAL_FORMAT.format(time));
+    }
+
+    /**
+     * Writes a content line, folding it onto continuation lines if it is longer than 75 characters.
+     * @param line The content line.
+     * @throws IOException If the calendar cannot be written.
+     */
+    private void writeLine(String line) throws IOException {
+        int start = 0;
+        int length = MAX_LINE_LENGTH;
+        while (line.length() - start > length) {
+            out.write(line, start, length);
+            out.write(CRLF + " ");
+            start += length;
+            length = MAX_LINE_LENGTH - 1;
+        }
+        out.write(line, start, line.length() - start);
+        out.write(CRLF);
+    }
+
+    /**
+     * Escapes the characters that have a meaning in iCalendar text values.
+     * @param text The text.
+     * @return The escaped text.
+     */
+    private String escape(String text) {
+        return text.replace("\\", "\\\\").replace(";", "\\;").replace(",", "\\,").replace("\n", "\\n");
+    }
+
+}
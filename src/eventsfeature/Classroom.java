@@ -2,7 +2,6 @@ package eventsfeature;
 
 import java.util.Arrays;
 import java.util.HashSet;
-import java.util.Set;
 
 /**
  * Represents an Classroom version of a Room. A Classroom has a set number of seats, (i.e. the capacity of an event
@@ -16,9 +15,11 @@ public class Classroom extends Room {
      * greater than 50, make a classroom with capacity equal to 50 (i.e. largest classroom possible).
      * @param roomNum The room number of this Classroom.
      * @param capacity The capacity of this Classroom.
+     * @param featureRegistry The registry used to encode the room's features.
      */
-    protected Classroom(int roomNum, int capacity) {
-        super(roomNum, Math.min(capacity, 50), new HashSet<>(Arrays.asList("tables", "chairs", "projectors", "whiteboards")));
+    protected Classroom(int roomNum, int capacity, FeatureRegistry featureRegistry) {
+        super(roomNum, Math.min(capacity, 50),
+                new HashSet<>(Arrays.asList("tables", "chairs", "projectors", "whiteboards")), featureRegistry);
     }
 
     /**
@@ -30,21 +31,28 @@ public class Classroom extends Room {
         return "CL"+getRoomNum();
     }
 
+    /**
+     * Gets the largest number of attendees an event held in this Classroom can have.
+     * @return The largest event capacity this room can hold.
+     */
+    @Override
+    protected int getEventCapacity() {
+        // classrooms cannot take on any more than the capacity
+        return getCapacity();
+    }
+
     /**
      * Checks whether this Classroom can hold an event, based on a set of requirements and a capacity.
-     * @param requirements Given requirements.
+     * @param requirements Given requirements, as a bitmask from the FeatureRegistry.
      * @param capacity The capacity of the event.
      * @return Whether or not all the requirements are in the room's list, and the capacity is no more than the room can
      * hold at once.
      */
     @Override
-    protected boolean checkRequirements(Set<String> requirements, int capacity) {
-        for (String s : requirements) {
-            if (!getFeatures().contains(s))
-                return false;
-        }
-        // classrooms cannot take on any more than the capacity
-        return capacity <= getCapacity();
+    protected boolean checkRequirements(long requirements, int capacity) {
+        if (!hasFeatures(requirements))
+            return false;
+        return capacity <= getEventCapacity();
     }
 
 }
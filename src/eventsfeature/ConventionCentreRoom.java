@@ -2,7 +2,6 @@ package eventsfeature;
 
 import java.util.Arrays;
 import java.util.HashSet;
-import java.util.Set;
 
 /**
  * Represents an ConventionCentre version of a Room. A ConventionCentre has a maximum room capacity, however events held
@@ -16,9 +15,10 @@ public class ConventionCentreRoom extends Room {
      * Constructs an instance of ConventionCentre.
      * @param roomNum The room number of this ConventionCentre.
      * @param capacity The capacity of this ConventionCentre.
+     * @param featureRegistry The registry used to encode the room's features.
      */
-    protected ConventionCentreRoom(int roomNum, int capacity) {
-        super(roomNum, capacity, new HashSet<>(Arrays.asList("tables", "booths", "projectors")));
+    protected ConventionCentreRoom(int roomNum, int capacity, FeatureRegistry featureRegistry) {
+        super(roomNum, capacity, new HashSet<>(Arrays.asList("tables", "booths", "projectors")), featureRegistry);
     }
 
     /**
@@ -30,21 +30,28 @@ public class ConventionCentreRoom extends Room {
         return "CC"+getRoomNum();
     }
 
+    /**
+     * Gets the largest number of attendees an event held in this ConventionCentre can have.
+     * @return The largest event capacity this room can hold.
+     */
+    @Override
+    protected int getEventCapacity() {
+        // convention centre rooms can take on events with more people that can fit in at once.
+        return 10*getCapacity();
+    }
+
     /**
      * Checks whether this ConventionCentre can hold an event, based on a set of requirements and a capacity.
-     * @param requirements Given requirements.
+     * @param requirements Given requirements, as a bitmask from the FeatureRegistry.
      * @param capacity The capacity of the event.
      * @return Whether or not all the requirements are in the room's list, and the capacity is no more than the room can
      * hold at once.
      */
     @Override
-    protected boolean checkRequirements(Set<String> requirements, int capacity) {
-        for (String s : requirements) {
-            if (!getFeatures().contains(s))
-                return false;
-        }
-        // convention centre rooms can take on events with more people that can fit in at once.
-        return capacity <= 10*getCapacity();
+    protected boolean checkRequirements(long requirements, int capacity) {
+        if (!hasFeatures(requirements))
+            return false;
+        return capacity <= getEventCapacity();
     }
 
 }
@@ -2,6 +2,7 @@ package eventsfeature;
 
 import java.time.*;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /** An entity class representing an Event.
  * @author Kevin Cecco, Daniel Chan, William Wang
@@ -12,12 +13,17 @@ public class Event {
     private String name;
     private LocalDateTime startTime;
     private int duration; //in hours
-    private final List<String> eventGoers;
+    private final Set<String> eventGoers; // kept in sign-up order
     private String speakerNames; //usernames separated by commas
     private boolean isFull = false;
     private int capacity;
     private final Set<String> requirements;
+    private final long requirementMask; // requirements as a bitmask from the FeatureRegistry
     private boolean isVIP;
+    private final Deque<String> waitlist; // first in, first promoted
+    private final Map<String, Long> waitlistTickets; // ticket minus waitlistServed is the waitlist position
+    private long waitlistServed; // number of users that have left the front of the waitlist
+    private final AtomicInteger version; // bumped after every change, so a cached EventView can tell it is stale
 
     /**
      * Constructs an instance of Event.
@@ -27,19 +33,41 @@ public class Event {
      * @param uid The unique ID associated with such Event, as an int.
      * @param speakerNames The unique usernames of the Speakers of such Event separated by commas, as a String.
      * @param capacity The capacity of Attendees the Event can hold, as an int.
+     * @param requirements The requirements of the Event, as a Set.
+     * @param requirementMask The requirements of the Event, as a bitmask from the FeatureRegistry.
      * @param VIP The VIP status of the Event, as a boolean.
      */
     protected Event(String name, LocalDateTime startTime, int duration, int uid, String speakerNames, int capacity,
-                    Set<String> requirements, boolean VIP) {
+                    Set<String> requirements, long requirementMask, boolean VIP) {
         this.uid = uid;
         this.name = name;
         this.startTime = startTime;
         this.duration = duration;
-        this.eventGoers = new ArrayList<>();
+        this.eventGoers = new LinkedHashSet<>();
         this.speakerNames = speakerNames;
         this.capacity = capacity;
         this.requirements = requirements;
+        this.requirementMask = requirementMask;
         this.isVIP = VIP;
+        this.waitlist = new ArrayDeque<>();
+        this.waitlistTickets = new HashMap<>();
+        this.waitlistServed = 0;
+        this.version = new AtomicInteger();
+    }
+
+    /**
+     * Getter for the version of the Event, which goes up every time the Event changes.
+     * @return The version of the Event.
+     */
+    protected int getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Records that the Event has changed, making every view built before the change stale.
+     */
+    protected void markChanged() {
+        version.incrementAndGet();
     }
 
     /**
@@ -91,10 +119,10 @@ public class Event {
     }
 
     /**
-     * Getter for the list of individuals going to the Event.
-     * @return Returns a list of Strings of names of individuals attending the Event.
+     * Getter for the individuals going to the Event, in the order they signed up.
+     * @return Returns a set of Strings of names of individuals attending the Event.
      */
-    protected List<String> getEventGoers() {
+    protected Set<String> getEventGoers() {
         return eventGoers;
     }
 
@@ -106,6 +134,15 @@ public class Event {
         return requirements;
     }
 
+    /**
+     * Getter for the requirements this Event has, as a bitmask.
+     * @return The bitmask from the FeatureRegistry, or FeatureRegistry.UNKNOWN_FEATURES if a requirement is not offered
+     * by any room.
+     */
+    protected long getRequirementMask() {
+        return requirementMask;
+    }
+
     /**
      * Gets a string representation of the requirements this Event has.
      * @return A string of requirements for this event.
@@ -140,19 +177,29 @@ public class Event {
      * @param newSpeakers Represents the new Speaker usernames.
      * @param newCapacity Represents the new capacity of the Event.
      * @param newVIP Represents the new VIP status of the Event.
+     * @return The names of the eventGoers removed because of the new capacity, as a List of Strings.
      */
-    protected void updateEventData(String newName, LocalDateTime newStartTime, int newDuration, String newSpeakers,
-                                   int newCapacity, boolean newVIP) {
+    protected List<String> updateEventData(String newName, LocalDateTime newStartTime, int newDuration,
+                                           String newSpeakers, int newCapacity, boolean newVIP) {
         this.name = newName;
         this.startTime = newStartTime;
         this.duration = newDuration;
         this.speakerNames = newSpeakers;
         this.capacity = newCapacity;
+        List<String> removed = new ArrayList<>();
         if (newCapacity < eventGoers.size()) {
-            eventGoers.subList(newCapacity, eventGoers.size()).clear();
-            isFull = true;
+            Iterator<String> it = eventGoers.iterator();
+            for (int i = 0; it.hasNext(); i++) {
+                String eventGoer = it.next();
+                if (i >= newCapacity) {
+                    removed.add(eventGoer);
+                    it.remove();
+                }
+            }
         }
+        isFull = eventGoers.size() >= newCapacity;
         this.isVIP = newVIP; // If newVIP is true, existing non-VIP attendees aren't removed.
+        return removed;
     }
 
     /**
@@ -165,8 +212,7 @@ public class Event {
      * @param eventGoerName The name of the individual trying to attend the Event.
      */
     protected void addEventGoer(String eventGoerName) {
-        if (!hasEventGoer(eventGoerName) && !isFull) {
-            eventGoers.add(eventGoerName);
+        if (!isFull && eventGoers.add(eventGoerName)) {
             if (eventGoers.size() == capacity) {
                 isFull = true;
             }
@@ -183,8 +229,7 @@ public class Event {
      * @return True if the EventGoer was removed, False otherwise.
      */
     protected boolean removeEventGoer(String eventGoerName) {
-         if (hasEventGoer(eventGoerName)) {
-             eventGoers.remove(eventGoerName);
+         if (eventGoers.remove(eventGoerName)) {
              if (eventGoers.size() < capacity) {
                  isFull = false;
              }
@@ -203,6 +248,70 @@ public class Event {
         return eventGoers.contains(eventGoerName);
     }
 
+    /**
+     * Adds an individual to the end of the waitlist for this Event.
+     * @param eventGoerName The name of the individual.
+     * @return Their position on the waitlist, or 0 if they are already attending or waiting.
+     */
+    protected int addToWaitlist(String eventGoerName) {
+        if (eventGoers.contains(eventGoerName) || waitlistTickets.containsKey(eventGoerName))
+            return 0;
+        waitlist.addLast(eventGoerName);
+        waitlistTickets.put(eventGoerName, waitlistServed + waitlist.size());
+        return waitlist.size();
+    }
+
+    /**
+     * Removes an individual from the waitlist for this Event. Everyone behind them moves up one position.
+     * @param eventGoerName The name of the individual.
+     * @return True if the individual was on the waitlist, false otherwise.
+     */
+    protected boolean removeFromWaitlist(String eventGoerName) {
+        Long ticket = waitlistTickets.remove(eventGoerName);
+        if (ticket == null)
+            return false;
+        waitlist.remove(eventGoerName);
+        for (String waiting : waitlist) {
+            if (waitlistTickets.get(waiting) > ticket)
+                waitlistTickets.put(waiting, waitlistTickets.get(waiting) - 1);
+        }
+        return true;
+    }
+
+    /**
+     * Gets the position of an individual on the waitlist for this Event.
+     * @param eventGoerName The name of the individual.
+     * @return Their position on the waitlist, starting at 1, or 0 if they are not on it.
+     */
+    protected int getWaitlistPosition(String eventGoerName) {
+        Long ticket = waitlistTickets.get(eventGoerName);
+        if (ticket == null)
+            return 0;
+        return (int) (ticket - waitlistServed);
+    }
+
+    /**
+     * Getter for the individuals on the waitlist for this Event.
+     * @return The names of the individuals waiting, in the order they will be promoted.
+     */
+    protected Collection<String> getWaitlist() {
+        return waitlist;
+    }
+
+    /**
+     * Takes the individual at the front of the waitlist off it, so that they can be promoted into the Event. Everyone
+     * behind them moves up one position.
+     * @return The name of the individual, or null if nobody is waiting.
+     */
+    protected String pollWaitlist() {
+        String eventGoerName = waitlist.pollFirst();
+        if (eventGoerName != null) {
+            waitlistTickets.remove(eventGoerName);
+            waitlistServed++;
+        }
+        return eventGoerName;
+    }
+
     /**
      * Returns if the Event is full.
      * @return True if the Event is full, false if it is not.
@@ -0,0 +1,189 @@
+package eventsfeature;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Keeps running totals of how booked the rooms are and how full the Events are. The totals are updated whenever an
+ * Event is created, changed or removed, or someone signs up or leaves, so reports never have to go through every
+ * Event. Sign-ups may happen on several threads at once, so every method is synchronized.
+ * @author Kevin Cecco, Daniel Chan, William Wang
+ */
+public class EventAnalytics {
+
+    /**
+     * The figures kept for one Event.
+     */
+    private static class EventStats {
+        private final int roomNum;
+        private LocalDateTime startTime;
+        private int duration;
+        private int capacity;
+        private int attendees;
+
+        private EventStats(int roomNum, LocalDateTime startTime, int duration, int capacity) {
+            this.roomNum = roomNum;
+            this.startTime = startTime;
+            this.duration = duration;
+            this.capacity = capacity;
+        }
+    }
+
+    private final Map<Integer, EventStats> events;
+    private final Map<Integer, TreeMap<LocalDate, Long>> roomMinutes; // room number -> day -> minutes booked
+    private final TreeSet<Integer> bySubscriptions; // event ids, most attendees first
+    private long totalCapacity;
+    private long totalAttendees;
+
+    /**
+     * Constructs an empty EventAnalytics.
+     */
+    protected EventAnalytics() {
+        events = new HashMap<>();
+        roomMinutes = new HashMap<>();
+        bySubscriptions = new TreeSet<>(Comparator.comparingInt((Integer id) -> -events.get(id).attendees)
+                .thenComparingInt(id -> id));
+        totalCapacity = 0;
+        totalAttendees = 0;
+    }
+
+    /**
+     * Records a new Event.
+     * @param eventId The id of the Event.
+     * @param roomNum The number of the room the Event is held in.
+     * @param startTime The start time of the Event.
+     * @param duration The duration of the Event, in hours.
+     * @param capacity The capacity of the Event.
+     */
+    protected synchronized void addEvent(int eventId, int roomNum, LocalDateTime startTime, int duration,
+                                         int capacity) {
+        removeEvent(eventId);
+        EventStats stats = new EventStats(roomNum, startTime, duration, capacity);
+        events.put(eventId, stats);
+        bySubscriptions.add(eventId);
+        addRoomMinutes(roomNum, startTime, duration, 1);
+        totalCapacity += capacity;
+    }
+
+    /**
+     * Records that an Event was removed.
+     * @param eventId The id of the Event.
+     */
+    protected synchronized void removeEvent(int eventId) {
+        EventStats stats = events.get(eventId);
+        if (stats == null)
+            return;
+        bySubscriptions.remove(eventId);
+        events.remove(eventId);
+        addRoomMinutes(stats.roomNum, stats.startTime, stats.duration, -1);
+        totalCapacity -= stats.capacity;
+        totalAttendees -= stats.attendees;
+    }
+
+    /**
+     * Records that the time or capacity of an Event changed.
+     * @param eventId The id of the Event.
+     * @param startTime The new start time of the Event.
+     * @param duration The new duration of the Event, in hours.
+     * @param capacity The new capacity of the Event.
+     */
+    protected synchronized void updateEvent(int eventId, LocalDateTime startTime, int duration, int capacity) {
+        EventStats stats = events.get(eventId);
+        if (stats == null)
+            return;
+        addRoomMinutes(stats.roomNum, stats.startTime, stats.duration, -1);
+        addRoomMinutes(stats.roomNum, startTime, duration, 1);
+        totalCapacity += capacity - stats.capacity;
+        stats.startTime = startTime;
+        stats.duration = duration;
+        stats.capacity = capacity;
+    }
+
+    /**
+     * Records the number of attendees of an Event after someone signed up or left.
+     * @param eventId The id of the Event.
+     * @param attendees The number of attendees now signed up.
+     */
+    protected synchronized void setAttendees(int eventId, int attendees) {
+        EventStats stats = events.get(eventId);
+        if (stats == null || stats.attendees == attendees)
+            return;
+        bySubscriptions.remove(eventId);
+        totalAttendees += attendees - stats.attendees;
+        stats.attendees = attendees;
+        bySubscriptions.add(eventId);
+    }
+
+    /**
+     * Gets the number of hours a room is booked for on a day. Events running past midnight count towards each day
+     * they run on.
+     * @param roomNum The number of the room.
+     * @param day The day.
+     * @return The number of hours booked.
+     */
+    protected synchronized double getRoomBookedHours(int roomNum, LocalDate day) {
+        TreeMap<LocalDate, Long> days = roomMinutes.get(roomNum);
+        if (days == null)
+            return 0;
+        return days.getOrDefault(day, 0L) / 60.0;
+    }
+
+    /**
+     * Gets the share of the seats of an Event that are taken.
+     * @param eventId The id of the Event.
+     * @return The number of attendees divided by the capacity, or 0 if the Event is not recorded.
+     */
+    protected synchronized double getFillRatio(int eventId) {
+        EventStats stats = events.get(eventId);
+        if (stats == null)
+            return 0;
+        return (double) stats.attendees / stats.capacity;
+    }
+
+    /**
+     * Gets the share of all seats, over every Event, that are taken.
+     * @return The total number of attendees divided by the total capacity, or 0 if there are no Events.
+     */
+    protected synchronized double getOverallFillRatio() {
+        return totalCapacity == 0 ? 0 : (double) totalAttendees / totalCapacity;
+    }
+
+    /**
+     * Gets the Events with the most attendees.
+     * @param n The largest number of Events to get.
+     * @return The ids of up to n Events, the most attendees first. Ties are broken by id.
+     */
+    protected synchronized List<Integer> getMostSubscribed(int n) {
+        List<Integer> top = new ArrayList<>();
+        for (int eventId : bySubscriptions) {
+            if (top.size() >= n)
+                break;
+            top.add(eventId);
+        }
+        return top;
+    }
+
+    /**
+     * Adds or takes away the minutes an Event books its room for, day by day.
+     * @param roomNum The number of the room.
+     * @param startTime The start time of the Event.
+     * @param duration The duration of the Event, in hours.
+     * @param sign 1 to add the minutes, -1 to take them away.
+     */
+    private void addRoomMinutes(int roomNum, LocalDateTime startTime, int duration, int sign) {
+        TreeMap<LocalDate, Long> days = roomMinutes.computeIfAbsent(roomNum, k -> new TreeMap<>());
+        LocalDateTime end = startTime.plusHours(duration);
+        LocalDateTime time = startTime;
+        while (time.isBefore(end)) {
+            LocalDateTime midnight = time.toLocalDate().plusDays(1).atStartOfDay();
+            LocalDateTime until = midnight.isBefore(end) ? midnight : end;
+            long minutes = sign * Duration.between(time, until).toMinutes();
+            if (days.merge(time.toLocalDate(), minutes, Long::sum) == 0)
+                days.remove(time.toLocalDate());
+            time = until;
+        }
+    }
+
+}
@@ -1,10 +1,15 @@
 package eventsfeature;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.time.*;
-import java.util.regex.Matcher;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /** EventHandler serves as a Use Case for Events and Rooms.
  * @author Kevin Cecco, Daniel Chan, William Wang
@@ -12,11 +17,30 @@ import java.util.regex.Pattern;
 
 public class EventHandler {
 
-    private static final String DATE_FORMAT = "yyyy-MM-dd HH:mm";
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final Pattern NAME_PATTERN = Pattern.compile("[\\w|\\s_.]*");
     private final RoomFactory roomFactory;
+    private final FeatureRegistry featureRegistry;
+    private final Set<String> availableFeatures; // union of the features of every room
     private final HashMap<Integer, Event> eventList;
     private final HashMap<Integer, Room> roomList;
+    private final TreeMap<Integer, Set<Integer>> roomsByEventCapacity; // largest event size -> room numbers
+    private final HashMap<Integer, Room> eventRooms; // event id -> the room the event is held in
+    private final HashMap<String, TimeSlotIndex> speakerSchedules;
+    private final TimeSlotIndex eventsByTime; // every event, ordered by start time
+    private final ConcurrentHashMap<String, Set<Integer>> attendeeEvents; // username -> ids of the events they attend
+    private final ConcurrentHashMap<String, TimeSlotIndex> attendeeSchedules; // username -> time slots they attend
+    private final ConcurrentHashMap<String, Set<Integer>> attendeeWaitlists; // username -> ids of events they wait for
+    private final ConcurrentHashMap<Integer, EventView> eventViews; // cached views, stamped with the version of their event
+    private final EventAnalytics analytics;
+    private final HashMap<Integer, EventSeries> seriesList;
+    private final HashMap<Integer, List<EventSeries>> roomSeries; // room number -> series held in the room
+    private final HashMap<String, List<EventSeries>> speakerSeries; // speaker username -> series they speak at
+    private final HashMap<Integer, EventSeries> occurrenceSeries; // event id -> the series it is an occurrence of
+    private final List<Integer> newOccurrences; // occurrences made into Events but not yet registered with users
     private int eventIdTracker;
+    private int seriesIdTracker;
 
     /**
      * Constructs an instance of EventHandler.
@@ -24,8 +48,25 @@ public class EventHandler {
     public EventHandler() {
         eventList = new HashMap<>();
         roomList = new HashMap<>();
+        roomsByEventCapacity = new TreeMap<>();
+        eventRooms = new HashMap<>();
+        speakerSchedules = new HashMap<>();
+        eventsByTime = new TimeSlotIndex();
+        attendeeEvents = new ConcurrentHashMap<>();
+        attendeeSchedules = new ConcurrentHashMap<>();
+        attendeeWaitlists = new ConcurrentHashMap<>();
+        eventViews = new ConcurrentHashMap<>();
+        analytics = new EventAnalytics();
+        seriesList = new HashMap<>();
+        roomSeries = new HashMap<>();
+        speakerSeries = new HashMap<>();
+        occurrenceSeries = new HashMap<>();
+        newOccurrences = new ArrayList<>();
         eventIdTracker = 0;
-        roomFactory = new RoomFactory();
+        seriesIdTracker = 0;
+        featureRegistry = new FeatureRegistry();
+        roomFactory = new RoomFactory(featureRegistry);
+        availableFeatures = new HashSet<>();
     }
 
     /**
@@ -40,16 +81,22 @@ public class EventHandler {
      * Create Event method specifically for the file reader upon loading.
      * @param id The ID of the Event to be made, as an int.
      * @param name The name of the Event to be made, as a String.
-     * @param time The start time of the Event to be made, as a LocalDateTime.
+     * @param dateTime The start time of the Event to be made, as a LocalDateTime.
      * @param duration The duration of the Event to be made, as an int.
      * @param speakerNames The usernames of the Speaker of the Event to be made separated by commas, as an String.
      * @param capacity The capacity of the Event to be made.
      */
-    protected void createEventForFile(int id, String name, String time, int duration, String speakerNames,
+    protected void createEventForFile(int id, String name, LocalDateTime dateTime, int duration, String speakerNames,
                                       Set<String> features, int capacity, boolean vip) {
-        LocalDateTime dateTime = LocalDateTime.parse(time, DateTimeFormatter.ofPattern(DATE_FORMAT));
-        eventIdTracker++;
-        eventList.put(id, new Event(name, dateTime, duration, id, speakerNames, capacity, features, vip));
+        eventIdTracker = Math.max(eventIdTracker, id + 1);
+        eventList.put(id, new Event(name, dateTime, duration, id, speakerNames, capacity, features,
+                featureRegistry.getMask(features), vip));
+        eventsByTime.add(id, dateTime, duration);
+        if (eventRooms.containsKey(id))
+            eventRooms.get(id).updateEventTime(id, dateTime, duration);
+        addToSpeakerSchedules(id, speakerNames, dateTime, duration);
+        analytics.addEvent(id, eventRooms.containsKey(id) ? eventRooms.get(id).getRoomNum() : -1, dateTime, duration,
+                capacity);
     }
 
     /**
@@ -59,6 +106,8 @@ public class EventHandler {
      */
     protected void addEventsToRoom(int roomNum, int eventId) {
         roomList.get(roomNum).addEventId(eventId);
+        eventRooms.put(eventId, roomList.get(roomNum));
+        markChanged(eventId);
     }
 
     /**
@@ -74,7 +123,7 @@ public class EventHandler {
         int duration, capacity, roomNum;
         boolean VIP;
         try {
-            checkEventData(data);
+            checkEventData(data, -1);
             speakerNames = data.get(0);
             name = data.get(1);
             time = data.get(2);
@@ -82,20 +131,231 @@ public class EventHandler {
             capacity = Integer.parseInt(data.get(4));
             VIP = Boolean.parseBoolean(data.get(5));
             roomNum = Integer.parseInt(data.get(6));
-            LocalDateTime dateTime = LocalDateTime.parse(time, DateTimeFormatter.ofPattern(DATE_FORMAT));
+            LocalDateTime dateTime = LocalDateTime.parse(time, DATE_FORMAT);
+            long requirementMask = featureRegistry.getMask(requirements);
             if (!roomList.containsKey(roomNum))
                 throw new RoomNotFoundException();
-            for (int eventIds : roomList.get(roomNum).getEventIds()) {
-                if (eventList.get(eventIds).hasTimeConflict(dateTime, duration))
-                    throw new InvalidEventFieldsException("room unavailable");
+            if (getFreePlaces(roomList.get(roomNum)) <= 0)
+                throw new InvalidEventFieldsException("room " + roomNum + " is full");
+            if (isRoomBusy(roomList.get(roomNum), dateTime, duration, -1))
+                throw new InvalidEventFieldsException("room unavailable");
+            if (!roomList.get(roomNum).checkRequirements(requirementMask, capacity))
+                throw new InvalidEventFieldsException("this room is incompatible with the event");
+            return addEvent(name, dateTime, duration, speakerNames, capacity, requirements, requirementMask, VIP,
+                    roomList.get(roomNum));
+        } catch (NumberFormatException e) {
+            throw new InvalidEventFieldsException("must be a number");
+        } catch (java.time.format.DateTimeParseException e) {
+            throw new InvalidEventFieldsException("invalid date format");
+        }
+    }
+
+    /**
+     * Checks the parts of an imported Event that do not depend on the rest of the schedule: its fields, and whether
+     * its room exists and fits it. Nothing is changed, so many Events may be checked at once on several threads, as
+     * long as no rooms are added meanwhile. Whether the room and speakers are free is left to createEvent.
+     * @param data The data of the Event, as for createEvent.
+     * @param requirements The requirements of the Event.
+     * @throws InvalidEventFieldsException For an invalid Event field.
+     * @throws RoomNotFoundException If the room does not exist.
+     */
+    protected void checkImportedEvent(List<String> data, Set<String> requirements)
+            throws InvalidEventFieldsException, RoomNotFoundException {
+        try {
+            LocalDateTime dateTime = LocalDateTime.parse(data.get(2), DATE_FORMAT);
+            int duration = Integer.parseInt(data.get(3));
+            int capacity = Integer.parseInt(data.get(4));
+            int roomNum = Integer.parseInt(data.get(6));
+            checkEventFields(data.get(1), dateTime, duration, capacity);
+            Room room = roomList.get(roomNum);
+            if (room == null)
+                throw new RoomNotFoundException();
+            if (!room.checkRequirements(featureRegistry.getMask(requirements), capacity))
+                throw new InvalidEventFieldsException("this room is incompatible with the event");
+        } catch (NumberFormatException e) {
+            throw new InvalidEventFieldsException("must be a number");
+        } catch (java.time.format.DateTimeParseException e) {
+            throw new InvalidEventFieldsException("invalid date format");
+        }
+    }
+
+    /**
+     * Adds a new Event to the schedule and to the given room, and indexes it. The caller is responsible for checking
+     * that the room and speakers are available.
+     * @param name The name of the Event.
+     * @param dateTime The start time of the Event.
+     * @param duration The duration of the Event, in hours.
+     * @param speakerNames The usernames of the Speakers of the Event separated by commas.
+     * @param capacity The capacity of the Event.
+     * @param requirements The requirements of the Event.
+     * @param requirementMask The requirements of the Event, as a bitmask from the FeatureRegistry.
+     * @param vip The VIP status of the Event.
+     * @param room The room the Event is held in.
+     * @return The id of the new Event.
+     * @throws InvalidEventFieldsException If the room cannot take any more events.
+     */
+    private int addEvent(String name, LocalDateTime dateTime, int duration, String speakerNames, int capacity,
+                         Set<String> requirements, long requirementMask, boolean vip, Room room)
+            throws InvalidEventFieldsException {
+        int id = eventIdTracker;
+        room.addEventId(id, dateTime, duration);
+        eventIdTracker++;
+        eventList.put(id, new Event(name, dateTime, duration, id, speakerNames, capacity, requirements,
+                requirementMask, vip));
+        eventRooms.put(id, room);
+        eventsByTime.add(id, dateTime, duration);
+        addToSpeakerSchedules(id, speakerNames, dateTime, duration);
+        analytics.addEvent(id, room.getRoomNum(), dateTime, duration, capacity);
+        return id;
+    }
+
+    /**
+     * Places a batch of Events into rooms and start times, so that no room or speaker is double booked. Events with
+     * the fewest suitable rooms are placed first, and each Event goes into the best fitting room that is free, along
+     * with its speakers, at some start time in the Event's window.
+     * @param data The data for each Event: speaker usernames, name, earliest start time, duration, capacity, VIP
+     *             status and latest start time, as a List of Strings.
+     * @param requirements The requirements for each Event, in the same order as data.
+     * @param timeBudgetMillis How long to spend placing Events, in milliseconds. Events not placed in time are skipped,
+     *                         including one whose search for a free time slot runs past the budget.
+     * @return The id of the Event created for each entry of data, in the same order, or -1 if it could not be placed.
+     */
+    protected List<Integer> scheduleEvents(List<List<String>> data, List<Set<String>> requirements,
+                                           long timeBudgetMillis) {
+        long deadline = System.currentTimeMillis() + timeBudgetMillis;
+        List<Integer> ids = new ArrayList<>(Collections.nCopies(data.size(), -1));
+        // finding the suitable rooms only reads the room indexes, so it is done on the fork-join pool
+        List<List<Room>> candidates = IntStream.range(0, data.size()).parallel()
+                .mapToObj(i -> getSchedulingCandidates(data.get(i), requirements.get(i)))
+                .collect(Collectors.toList());
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < data.size(); i++) {
+            if (!candidates.get(i).isEmpty())
+                order.add(i);
+        }
+        order.sort(Comparator.comparingInt((Integer i) -> candidates.get(i).size())
+                .thenComparing(i -> -Integer.parseInt(data.get(i).get(3))));
+        for (int i : order) {
+            if (System.currentTimeMillis() > deadline)
+                break;
+            ids.set(i, placeEvent(data.get(i), requirements.get(i), candidates.get(i), deadline));
+        }
+        return ids;
+    }
+
+    /**
+     * Gets the rooms an Event to be scheduled could be held in, the best fit first. An Event with invalid data has no
+     * suitable rooms.
+     * @param data The data for the Event, as described in scheduleEvents.
+     * @param requirements The requirements of the Event.
+     * @return The suitable rooms, as a List.
+     */
+    private List<Room> getSchedulingCandidates(List<String> data, Set<String> requirements) {
+        List<Room> rooms = new ArrayList<>();
+        try {
+            LocalDateTime earliest = LocalDateTime.parse(data.get(2), DATE_FORMAT);
+            LocalDateTime latest = LocalDateTime.parse(data.get(6), DATE_FORMAT);
+            int duration = Integer.parseInt(data.get(3));
+            int capacity = Integer.parseInt(data.get(4));
+            checkEventFields(data.get(1), earliest, duration, capacity);
+            if (latest.isBefore(earliest))
+                return rooms;
+            for (int roomNum : getSuggestedRoomNumbers(requirements, capacity))
+                rooms.add(roomList.get(roomNum));
+        } catch (NumberFormatException | IndexOutOfBoundsException | java.time.format.DateTimeParseException |
+                InvalidEventFieldsException ignored) {}
+        return rooms;
+    }
+
+    /**
+     * Creates an Event in the best fitting of its rooms that is free, together with its speakers, at some start time in
+     * the Event's window. Within a room, the earliest free start time is taken. Whenever the room or a speaker is busy,
+     * the search skips ahead to the end of whatever they are busy with.
+     * @param data The data for the Event, as described in scheduleEvents.
+     * @param requirements The requirements of the Event.
+     * @param rooms The rooms the Event could be held in, the best fit first.
+     * @param deadline The time, in milliseconds since the epoch, at which to give up the search.
+     * @return The id of the created Event, or -1 if there is no free time slot or the deadline passed.
+     */
+    private int placeEvent(List<String> data, Set<String> requirements, List<Room> rooms, long deadline) {
+        String speakerNames = data.get(0);
+        int duration = Integer.parseInt(data.get(3));
+        LocalDateTime earliest = LocalDateTime.parse(data.get(2), DATE_FORMAT);
+        LocalDateTime latest = LocalDateTime.parse(data.get(6), DATE_FORMAT);
+        long requirementMask = featureRegistry.getMask(requirements);
+        for (Room room : rooms) {
+            if (getFreePlaces(room) <= 0)
+                continue;
+            LocalDateTime time = earliest;
+            while (!time.isAfter(latest)) {
+                if (System.currentTimeMillis() > deadline)
+                    return -1;
+                LocalDateTime busyUntil = later(room.getConflictEnd(time, duration),
+                        getSeriesConflictEnd(roomSeries.get(room.getRoomNum()), time, duration));
+                for (String speakerName : speakerNames.split(",")) {
+                    TimeSlotIndex schedule = speakerSchedules.get(speakerName);
+                    busyUntil = later(busyUntil, schedule == null ? null : schedule.getConflictEnd(time, duration));
+                    busyUntil = later(busyUntil, getSeriesConflictEnd(speakerSeries.get(speakerName), time, duration));
+                }
+                if (busyUntil == null)
+                    return addEvent(data.get(1), time, duration, speakerNames, Integer.parseInt(data.get(4)),
+                            requirements, requirementMask, Boolean.parseBoolean(data.get(5)), room);
+                time = busyUntil.isAfter(time) ? busyUntil : time.plusHours(1);
             }
-            if (!roomList.get(roomNum).checkRequirements(requirements, capacity))
+        }
+        return -1;
+    }
+
+    /**
+     * Creates a recurring series of Events, one every few days in the same room at the same time of day. Every
+     * occurrence is checked against the room and the speakers, but none of them is stored as an Event until a search
+     * touches it.
+     * @param data The data for the first occurrence, as for createEvent.
+     * @param requirements A list of requirements for this Room.
+     * @param intervalDays The number of days between the starts of two occurrences in a row (ie. 7 for weekly).
+     * @param numOccurrences The number of occurrences.
+     * @param createdBy The username of the Organizer creating the series.
+     * @return The id of the series that was just created.
+     * @throws InvalidEventFieldsException For an invalid Event field, if the room cannot take every occurrence, or if
+     * the room or a speaker is not free for some occurrence.
+     */
+    protected int createSeries(List<String> data, Set<String> requirements, int intervalDays, int numOccurrences,
+                               String createdBy) throws InvalidEventFieldsException {
+        try {
+            String speakerNames = data.get(0);
+            String name = data.get(1);
+            LocalDateTime first = LocalDateTime.parse(data.get(2), DATE_FORMAT);
+            int duration = Integer.parseInt(data.get(3));
+            int capacity = Integer.parseInt(data.get(4));
+            boolean vip = Boolean.parseBoolean(data.get(5));
+            int roomNum = Integer.parseInt(data.get(6));
+            checkEventFields(name, first, duration, capacity);
+            if (intervalDays <= 0 || numOccurrences <= 0)
+                throw new InvalidEventFieldsException("zeros and negatives not allowed");
+            if ((long) intervalDays * 24 < duration)
+                throw new InvalidEventFieldsException("occurrences of a series cannot overlap");
+            Room room = roomList.get(roomNum);
+            if (room == null)
+                throw new RoomNotFoundException();
+            long requirementMask = featureRegistry.getMask(requirements);
+            if (!room.checkRequirements(requirementMask, capacity))
                 throw new InvalidEventFieldsException("this room is incompatible with the event");
-            int id = eventIdTracker;
-            eventIdTracker++;
-            eventList.put(id, new Event(name, dateTime, duration, id, speakerNames, capacity, requirements, VIP));
-            roomList.get(roomNum).addEventId(id);
-            return id;
+            EventSeries series = new EventSeries(seriesIdTracker, name, first, duration, speakerNames, capacity,
+                    requirements, requirementMask, vip, roomNum, intervalDays, numOccurrences, createdBy);
+            if (series.getNumVirtual() > getFreePlaces(room))
+                throw new InvalidEventFieldsException("room " + roomNum + " cannot take " + numOccurrences +
+                        " more events");
+            for (LocalDateTime time : series.getVirtualOccurrences(null, null)) {
+                if (isRoomBusy(room, time, duration, -1))
+                    throw new InvalidEventFieldsException("room unavailable on " + time.toLocalDate());
+                String speakerName = getUnavailableSpeaker(speakerNames, time, duration, -1);
+                if (speakerName != null)
+                    throw new InvalidEventFieldsException("speaker " + speakerName + " unavailable on " +
+                            time.toLocalDate());
+            }
+            seriesIdTracker++;
+            addSeries(series);
+            return series.getSeriesId();
         } catch (NumberFormatException e) {
             throw new InvalidEventFieldsException("must be a number");
         } catch (java.time.format.DateTimeParseException e) {
@@ -103,6 +363,280 @@ public class EventHandler {
         }
     }
 
+    /**
+     * Create series method specifically for the file reader upon loading. The Events that occurrences have become are
+     * loaded separately.
+     * @param id The ID of the series.
+     * @param name The name of each occurrence.
+     * @param time The start time of the first occurrence.
+     * @param duration The duration of each occurrence, in hours.
+     * @param speakerNames The usernames of the Speakers of each occurrence separated by commas.
+     * @param features The requirements of each occurrence.
+     * @param capacity The capacity of each occurrence.
+     * @param vip The VIP status of each occurrence.
+     * @param roomNum The number of the room the occurrences are held in.
+     * @param intervalDays The number of days between the starts of two occurrences in a row.
+     * @param numOccurrences The number of occurrences.
+     * @param exceptions The start times of the cancelled occurrences.
+     * @param materialized The ids of the Events that occurrences have become, keyed by the start time of the
+     *                     occurrence.
+     * @param createdBy The username of the Organizer who created the series.
+     */
+    protected void createSeriesForFile(int id, String name, LocalDateTime time, int duration, String speakerNames,
+                                       Set<String> features, int capacity, boolean vip, int roomNum, int intervalDays,
+                                       int numOccurrences, List<LocalDateTime> exceptions,
+                                       Map<LocalDateTime, Integer> materialized, String createdBy) {
+        EventSeries series = new EventSeries(id, name, time, duration, speakerNames, capacity, features,
+                featureRegistry.getMask(features), vip, roomNum, intervalDays, numOccurrences, createdBy);
+        for (LocalDateTime exception : exceptions)
+            series.cancelOccurrence(exception);
+        for (Map.Entry<LocalDateTime, Integer> occurrence : materialized.entrySet()) {
+            series.addMaterialized(occurrence.getKey(), occurrence.getValue());
+            occurrenceSeries.put(occurrence.getValue(), series);
+        }
+        seriesIdTracker = Math.max(seriesIdTracker, id + 1);
+        addSeries(series);
+    }
+
+    /**
+     * Adds a series to the list of series and to the room and speaker indexes.
+     * @param series The series.
+     */
+    private void addSeries(EventSeries series) {
+        seriesList.put(series.getSeriesId(), series);
+        roomSeries.computeIfAbsent(series.getRoomNum(), k -> new ArrayList<>()).add(series);
+        for (String speakerName : series.getSpeakerNames().split(",")) {
+            if (!"".equals(speakerName))
+                speakerSeries.computeIfAbsent(speakerName, k -> new ArrayList<>()).add(series);
+        }
+    }
+
+    /**
+     * Cancels one occurrence of a series. If the occurrence has already become an Event, that Event is removed.
+     * @param seriesId The id of the series.
+     * @param time The start time of the occurrence, formatted as yyyy-MM-dd HH:mm.
+     * @return The id of the Event that was removed, or -1 if the occurrence was still virtual.
+     * @throws EventNotFoundException If the series does not exist.
+     * @throws InvalidEventFieldsException If no occurrence of the series starts at that time.
+     */
+    protected int cancelOccurrence(int seriesId, String time) throws EventNotFoundException,
+            InvalidEventFieldsException {
+        EventSeries series = seriesList.get(seriesId);
+        if (series == null)
+            throw new EventNotFoundException();
+        LocalDateTime dateTime;
+        try {
+            dateTime = LocalDateTime.parse(time, DATE_FORMAT);
+        } catch (java.time.format.DateTimeParseException e) {
+            throw new InvalidEventFieldsException("invalid date format");
+        }
+        if (!series.isOccurrence(dateTime))
+            throw new InvalidEventFieldsException("the series has no occurrence at that time");
+        Integer eventId = series.cancelOccurrence(dateTime);
+        if (eventId == null)
+            return -1;
+        occurrenceSeries.remove(eventId);
+        removeEvent(eventId);
+        return eventId;
+    }
+
+    /**
+     * Removes a series, along with the Events its occurrences have become.
+     * @param seriesId The id of the series.
+     * @return The ids of the Events that were removed.
+     * @throws EventNotFoundException If the series does not exist.
+     */
+    protected List<Integer> removeSeries(int seriesId) throws EventNotFoundException {
+        EventSeries series = seriesList.remove(seriesId);
+        if (series == null)
+            throw new EventNotFoundException();
+        roomSeries.get(series.getRoomNum()).remove(series);
+        for (String speakerName : series.getSpeakerNames().split(",")) {
+            if (speakerSeries.containsKey(speakerName))
+                speakerSeries.get(speakerName).remove(series);
+        }
+        List<Integer> removed = new ArrayList<>(series.getMaterialized().values());
+        for (int eventId : removed) {
+            occurrenceSeries.remove(eventId);
+            removeEvent(eventId);
+        }
+        return removed;
+    }
+
+    /**
+     * Gets the usernames of the Speakers of a series.
+     * @param seriesId The id of the series.
+     * @return The usernames of the Speakers separated by commas.
+     * @throws EventNotFoundException If the series does not exist.
+     */
+    protected String getSeriesSpeakerNames(int seriesId) throws EventNotFoundException {
+        if (!seriesList.containsKey(seriesId))
+            throw new EventNotFoundException();
+        return seriesList.get(seriesId).getSpeakerNames();
+    }
+
+    /**
+     * Turns the virtual occurrences of some series that start within a time range into Events, so that they can be
+     * found and signed up for. Each occurrence already has a place kept for it in its room (see getFreePlaces).
+     * @param series The series to look at, or null for every series.
+     * @param from The earliest start time, inclusive, or null.
+     * @param to The latest start time, exclusive, or null.
+     */
+    private void materializeSeries(Collection<EventSeries> series, LocalDateTime from, LocalDateTime to) {
+        materializeSeries(series, from, to, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Turns the earliest virtual occurrences of some series that start within a time range into Events, so that they
+     * can be found and signed up for. Each occurrence already has a place kept for it in its room (see getFreePlaces).
+     * @param series The series to look at, or null for every series.
+     * @param from The earliest start time, inclusive, or null.
+     * @param to The latest start time, exclusive, or null.
+     * @param limit The largest number of occurrences to make into Events.
+     */
+    private void materializeSeries(Collection<EventSeries> series, LocalDateTime from, LocalDateTime to, int limit) {
+        List<Map.Entry<LocalDateTime, EventSeries>> occurrences = new ArrayList<>();
+        for (EventSeries s : series == null ? seriesList.values() : series) {
+            if (!roomList.containsKey(s.getRoomNum())) // ie. a saved series whose room is gone
+                continue;
+            for (LocalDateTime time : s.getVirtualOccurrences(from, to, limit))
+                occurrences.add(new AbstractMap.SimpleEntry<>(time, s));
+        }
+        if (occurrences.size() > limit) {
+            occurrences.sort(Map.Entry.comparingByKey());
+            occurrences = occurrences.subList(0, limit);
+        }
+        for (Map.Entry<LocalDateTime, EventSeries> occurrence : occurrences) {
+            LocalDateTime time = occurrence.getKey();
+            EventSeries s = occurrence.getValue();
+            int id = addEvent(s.getName(), time, s.getDuration(), s.getSpeakerNames(), s.getCapacity(),
+                    s.getRequirements(), s.getRequirementMask(), s.getVIP(), roomList.get(s.getRoomNum()));
+            s.addMaterialized(time, id);
+            occurrenceSeries.put(id, s);
+            newOccurrences.add(id);
+        }
+    }
+
+    /**
+     * Gets views of the virtual occurrences of series that meet every condition of a query without a time range, in
+     * chronological order. They are not made into Events, so that a listing without a time range does not turn every
+     * occurrence of every series into an Event. A query with a time range has none, as getEventIds makes the
+     * occurrences in the range into Events.
+     * @param query The query.
+     * @return Views of the matching virtual occurrences, each with the id -1.
+     */
+    protected Stream<EventView> getVirtualViews(EventQuery query) {
+        if (query.getFrom() != null || query.getTo() != null || query.getAttendee() != null) // nobody attends these
+            return Stream.empty();
+        Collection<EventSeries> series = query.getRoomNum() == null ? seriesList.values() :
+                roomSeries.getOrDefault(query.getRoomNum(), Collections.emptyList());
+        long requirementMask = featureRegistry.getMask(query.getRequirements());
+        List<EventView> views = new ArrayList<>();
+        for (EventSeries s : series) {
+            Room room = roomList.get(s.getRoomNum());
+            if (room == null || !seriesMatchesQuery(s, query, requirementMask))
+                continue;
+            for (LocalDateTime time : s.getVirtualOccurrences(null, null))
+                views.add(new EventView(s, time, room.getRoomCode()));
+        }
+        views.sort(Comparator.comparing(EventView::getStartTime));
+        return views.stream();
+    }
+
+    /**
+     * Checks if the occurrences of a series meet every condition of a query other than the time range and the
+     * attendee. Mirrors matchesQuery.
+     * @param series The series.
+     * @param query The query.
+     * @param requirementMask The requirements of the query, as a bitmask from the FeatureRegistry.
+     * @return True if the occurrences meet the query, false otherwise.
+     */
+    private boolean seriesMatchesQuery(EventSeries series, EventQuery query, long requirementMask) {
+        for (String speaker : query.getSpeakers()) {
+            if (!series.hasSpeaker(speaker))
+                return false;
+        }
+        if (query.getRoomNum() != null && series.getRoomNum() != query.getRoomNum())
+            return false;
+        if (query.getVIP() != null && series.getVIP() != query.getVIP())
+            return false;
+        if (query.hasSeatsLeft() && series.getCapacity() <= 0)
+            return false;
+        if (series.getRequirementMask() == FeatureRegistry.UNKNOWN_FEATURES)
+            return series.getRequirements().containsAll(query.getRequirements());
+        return (series.getRequirementMask() & requirementMask) == requirementMask;
+    }
+
+    /**
+     * Takes the occurrences that have become Events since the last call, so that they can be registered with their
+     * Speakers and with the Organizer of their series.
+     * @return The usernames of the Organizers who created the series, keyed by the ids of the Events.
+     */
+    protected Map<Integer, String> takeNewOccurrences() {
+        Map<Integer, String> occurrences = new LinkedHashMap<>();
+        for (int eventId : newOccurrences) {
+            EventSeries series = occurrenceSeries.get(eventId);
+            if (series != null && eventList.containsKey(eventId))
+                occurrences.put(eventId, series.getCreatedBy());
+        }
+        newOccurrences.clear();
+        return occurrences;
+    }
+
+    /**
+     * Gets the number of Events a room can still take. A place is kept for each virtual occurrence of the series held
+     * in the room, so that every occurrence fits once it becomes an Event.
+     * @param room The room.
+     * @return The number of free places in the room.
+     */
+    private int getFreePlaces(Room room) {
+        int reserved = 0;
+        for (EventSeries s : roomSeries.getOrDefault(room.getRoomNum(), Collections.emptyList()))
+            reserved += s.getNumVirtual();
+        return room.getCapacity() - room.getEventIds().size() - reserved;
+    }
+
+    /**
+     * Checks if a room is busy during a time period, either with an Event or with a virtual occurrence of a series.
+     * @param room The room.
+     * @param time Time the time period begins at.
+     * @param duration Duration the time period lasts for, in hours.
+     * @param ignoredEventId The id of an Event in the room to leave out of the check, or -1.
+     * @return True if the room is busy, false otherwise.
+     */
+    private boolean isRoomBusy(Room room, LocalDateTime time, int duration, int ignoredEventId) {
+        return room.hasTimeConflict(time, duration, ignoredEventId) ||
+                getSeriesConflictEnd(roomSeries.get(room.getRoomNum()), time, duration) != null;
+    }
+
+    /**
+     * Gets the time at which every virtual occurrence of some series overlapping a time period is over.
+     * @param series The series, or null if there are none.
+     * @param time Time the time period begins at.
+     * @param duration Duration the time period lasts for, in hours.
+     * @return The latest end time of the overlapping occurrences, or null if there is no time conflict.
+     */
+    private LocalDateTime getSeriesConflictEnd(List<EventSeries> series, LocalDateTime time, int duration) {
+        LocalDateTime conflictEnd = null;
+        if (series != null) {
+            for (EventSeries s : series)
+                conflictEnd = later(conflictEnd, s.getConflictEnd(time, duration));
+        }
+        return conflictEnd;
+    }
+
+    /**
+     * Gets the later of two times, either of which may be null.
+     * @param a The first time, or null.
+     * @param b The second time, or null.
+     * @return The later time, or null if both are null.
+     */
+    private LocalDateTime later(LocalDateTime a, LocalDateTime b) {
+        if (a == null)
+            return b;
+        return b == null || !b.isAfter(a) ? a : b;
+    }
+
     /**
      * Creates a room in the system.
      * @param roomNum  The room number of the new room.
@@ -115,7 +649,10 @@ public class EventHandler {
             throw new InvalidEventFieldsException("room already exists");
         if (capacity <= 0)
             throw new InvalidEventFieldsException("minimum capacity is 1");
-        roomList.put(roomNum, roomFactory.getNewRoom(roomType, roomNum, capacity));
+        Room room = roomFactory.getNewRoom(roomType, roomNum, capacity);
+        roomList.put(roomNum, room);
+        roomsByEventCapacity.computeIfAbsent(room.getEventCapacity(), k -> new TreeSet<>()).add(roomNum);
+        availableFeatures.addAll(room.getFeatures());
     }
 
     /**
@@ -126,15 +663,21 @@ public class EventHandler {
     protected void removeEvent(int eventId) throws EventNotFoundException {
         if (!eventList.containsKey(eventId))
             throw new EventNotFoundException();
+        removeFromSpeakerSchedules(eventId, eventList.get(eventId).getSpeakerNames());
+        for (String attendeeName : eventList.get(eventId).getEventGoers())
+            removeFromAttendeeEvents(attendeeName, eventId);
+        for (String attendeeName : eventList.get(eventId).getWaitlist())
+            removeFromAttendeeWaitlists(attendeeName, eventId);
         eventList.remove(eventId);
-        for (Room room : roomList.values()) {
-            for (int id : room.getEventIds()) {
-                if (id == eventId) {
-                    room.removeEventId(eventId);
-                    break;
-                }
-            }
-        }
+        eventViews.remove(eventId);
+        eventsByTime.remove(eventId);
+        analytics.removeEvent(eventId);
+        Room room = eventRooms.remove(eventId);
+        if (room != null)
+            room.removeEventId(eventId);
+        EventSeries series = occurrenceSeries.remove(eventId);
+        if (series != null)
+            series.cancelMaterialized(eventId);
     }
 
     /**
@@ -142,10 +685,25 @@ public class EventHandler {
      * @param attendeeName The name of the attendee to be added.
      * @param eventId The unique ID for the Event in question.
      * @throws EventNotFoundException If the event does not exist in the schedule.
-     * @throws InvalidEventFieldsException If the Event is full or the user is already signed up.
+     * @throws InvalidEventFieldsException If the Event is full, the user is already signed up, or the user attends
+     * another Event at the same time.
      */
     protected void addAttendeeToEvent(String attendeeName, int eventId) throws EventNotFoundException,
             InvalidEventFieldsException {
+        addAttendeeToEvent(attendeeName, eventId, false);
+    }
+
+    /**
+     * Adds an attendee to an Event in the EventHandler schedule, if any.
+     * @param attendeeName The name of the attendee to be added.
+     * @param eventId The unique ID for the Event in question.
+     * @param allowOverlap Whether the attendee may attend another Event at the same time (ie. when loading).
+     * @throws EventNotFoundException If the event does not exist in the schedule.
+     * @throws InvalidEventFieldsException If the Event is full, the user is already signed up, or the user attends
+     * another Event at the same time and allowOverlap is false.
+     */
+    protected void addAttendeeToEvent(String attendeeName, int eventId, boolean allowOverlap)
+            throws EventNotFoundException, InvalidEventFieldsException {
         if (!eventList.containsKey(eventId))
             throw new EventNotFoundException();
         Event e = eventList.get(eventId);
@@ -153,28 +711,296 @@ public class EventHandler {
             throw new InvalidEventFieldsException("this event is already full");
         if (e.hasEventGoer(attendeeName))
             throw new InvalidEventFieldsException("you are already signed up for this event");
+        addToAttendeeEvents(attendeeName, eventId, allowOverlap);
         e.addEventGoer(attendeeName);
+        markChanged(eventId);
+        analytics.setAttendees(eventId, e.numAttendees());
     }
 
     /**
-     * Removes an attendee from an Event in EventHandler schedule, if any.
+     * Takes back a sign-up whose user side could not be recorded. Unlike removeAttendeeFromEvent, nobody is promoted
+     * from the waitlist, since the seat was free before the sign-up.
      * @param attendeeName The name of the attendee to be removed.
      * @param eventId The unique ID for the Event in question.
+     */
+    protected void undoAddAttendee(String attendeeName, int eventId) {
+        Event e = eventList.get(eventId);
+        if (e != null && e.removeEventGoer(attendeeName)) {
+            markChanged(eventId);
+            removeFromAttendeeEvents(attendeeName, eventId);
+            analytics.setAttendees(eventId, e.numAttendees());
+        }
+    }
+
+    /**
+     * Adds the attendees of an Event read from a file, all at once. The checks done when someone signs up are left out,
+     * since the attendees were checked when they first signed up; attendees past the capacity are left out as well.
+     * Only meant to be called while loading, before sign-ups may come in on other threads.
+     * @param eventId The unique ID for the Event in question.
+     * @param attendeeNames The names of the attendees, in the order they signed up.
+     * @throws EventNotFoundException If the event does not exist in the schedule.
+     */
+    protected void addAttendeesForFile(int eventId, List<String> attendeeNames) throws EventNotFoundException {
+        Event e = eventList.get(eventId);
+        if (e == null)
+            throw new EventNotFoundException();
+        for (String attendeeName : attendeeNames) {
+            if (e.isFull())
+                break;
+            if (e.hasEventGoer(attendeeName))
+                continue;
+            e.addEventGoer(attendeeName);
+            attendeeSchedules.computeIfAbsent(attendeeName, k -> new TimeSlotIndex())
+                    .add(eventId, e.getStartTime(), e.getDuration());
+            attendeeEvents.computeIfAbsent(attendeeName, k -> ConcurrentHashMap.newKeySet()).add(eventId);
+        }
+        markChanged(eventId);
+        analytics.setAttendees(eventId, e.numAttendees());
+    }
+
+    /**
+     * Adds the waitlist of an Event read from a file, all at once. As with addAttendeesForFile, the checks done when
+     * someone joins the waitlist are left out, so one user who would now fail them does not cost the rest their place.
+     * Only meant to be called while loading, before sign-ups may come in on other threads.
+     * @param eventId The unique ID for the Event in question.
+     * @param waitingNames The names of the users on the waitlist, in the order they joined it.
+     * @throws EventNotFoundException If the event does not exist in the schedule.
+     */
+    protected void addWaitlistForFile(int eventId, List<String> waitingNames) throws EventNotFoundException {
+        Event e = eventList.get(eventId);
+        if (e == null)
+            throw new EventNotFoundException();
+        for (String attendeeName : waitingNames) {
+            if (e.addToWaitlist(attendeeName) > 0)
+                attendeeWaitlists.computeIfAbsent(attendeeName, k -> ConcurrentHashMap.newKeySet()).add(eventId);
+        }
+    }
+
+    /**
+     * Adds an attendee to the end of the waitlist of a full Event.
+     * @param attendeeName The name of the attendee to be added.
+     * @param eventId The unique ID for the Event in question.
+     * @return The attendee's position on the waitlist.
+     * @throws EventNotFoundException If the event does not exist in the schedule.
+     * @throws InvalidEventFieldsException If the Event is not full or the user is already signed up or waiting.
+     */
+    protected int addAttendeeToWaitlist(String attendeeName, int eventId) throws EventNotFoundException,
+            InvalidEventFieldsException {
+        if (!eventList.containsKey(eventId))
+            throw new EventNotFoundException();
+        Event e = eventList.get(eventId);
+        if (!e.isFull())
+            throw new InvalidEventFieldsException("this event is not full");
+        if (hasAttendeeTimeConflict(attendeeName, eventId))
+            throw new InvalidEventFieldsException("you are already attending an event at that time");
+        int position = e.addToWaitlist(attendeeName);
+        if (position == 0)
+            throw new InvalidEventFieldsException("you are already signed up or waiting for this event");
+        attendeeWaitlists.computeIfAbsent(attendeeName, k -> ConcurrentHashMap.newKeySet()).add(eventId);
+        return position;
+    }
+
+    /**
+     * Gets an attendee's position on the waitlist of an Event.
+     * @param attendeeName The name of the attendee.
+     * @param eventId The unique ID for the Event in question.
+     * @return The attendee's position on the waitlist, starting at 1, or 0 if they are not waiting.
+     * @throws EventNotFoundException If the event does not exist in the schedule.
+     */
+    protected int getWaitlistPosition(String attendeeName, int eventId) throws EventNotFoundException {
+        if (!eventList.containsKey(eventId))
+            throw new EventNotFoundException();
+        return eventList.get(eventId).getWaitlistPosition(attendeeName);
+    }
+
+    /**
+     * Gets the Events an attendee is on the waitlist of.
+     * @param attendeeName The name of the attendee.
+     * @return The ids of the Events, as a List of ints.
+     */
+    protected List<Integer> getWaitlistedEventIds(String attendeeName) {
+        return new ArrayList<>(attendeeWaitlists.getOrDefault(attendeeName, Collections.emptySet()));
+    }
+
+    /**
+     * Removes an attendee from an Event in EventHandler schedule, if any. If the attendee is only on the waitlist,
+     * they are taken off it instead. A seat freed up goes to the next attendee on the waitlist.
+     * @param attendeeName The name of the attendee to be removed.
+     * @param eventId The unique ID for the Event in question.
+     * @return The names of the attendees promoted from the waitlist into the Event.
      * @throws EventNotFoundException If the event does not exist in the schedule.
      * @throws InvalidEventFieldsException If the user is not in this event.
      */
-    protected void removeAttendeeFromEvent(String attendeeName, int eventId) throws EventNotFoundException,
+    protected List<String> removeAttendeeFromEvent(String attendeeName, int eventId) throws EventNotFoundException,
             InvalidEventFieldsException {
         if (eventList.containsKey(eventId)) {
             Event e = eventList.get(eventId);
+            if (e.removeFromWaitlist(attendeeName)) {
+                removeFromAttendeeWaitlists(attendeeName, eventId);
+                return new ArrayList<>();
+            }
             if (!e.removeEventGoer(attendeeName)) {
                 throw new InvalidEventFieldsException("user is not in this event");
             }
+            markChanged(eventId);
+            removeFromAttendeeEvents(attendeeName, eventId);
+            analytics.setAttendees(eventId, e.numAttendees());
+            return promoteFromWaitlist(eventId);
         } else {
             throw new EventNotFoundException();
         }
     }
 
+    /**
+     * Fills any free seats of an Event from its waitlist. An attendee who has since signed up for another Event at the
+     * same time is taken off the waitlist instead of being promoted, and the next one gets the seat.
+     * @param eventId The unique ID for the Event in question.
+     * @return The names of the attendees promoted from the waitlist into the Event.
+     */
+    private List<String> promoteFromWaitlist(int eventId) {
+        Event e = eventList.get(eventId);
+        List<String> promoted = new ArrayList<>();
+        String attendeeName;
+        while (!e.isFull() && (attendeeName = e.pollWaitlist()) != null) {
+            removeFromAttendeeWaitlists(attendeeName, eventId);
+            try {
+                addToAttendeeEvents(attendeeName, eventId, false);
+            } catch (InvalidEventFieldsException ignored) {
+                continue; // they attend an overlapping Event
+            }
+            e.addEventGoer(attendeeName);
+            promoted.add(attendeeName);
+        }
+        if (!promoted.isEmpty())
+            markChanged(eventId);
+        analytics.setAttendees(eventId, e.numAttendees());
+        return promoted;
+    }
+
+    /**
+     * Writes the Events of a certain scope to a Writer as an iCalendar calendar, one Event at a time. Recurring series
+     * are written as a single recurring VEVENT each, without turning their occurrences into Events. Events and series
+     * whose room no longer exists are left out.
+     * @param scope The scope: "user", "speaker", "room" or "all".
+     * @param details Details of the scope (ie. the username for "user", the room number for "room").
+     * @param out The Writer to write the calendar to.
+     * @throws IOException If the calendar cannot be written.
+     * @throws InvalidEventFieldsException If the scope or its details are invalid.
+     * @throws RoomNotFoundException If the room does not exist.
+     */
+    protected void exportCalendar(String scope, String details, Writer out) throws IOException,
+            InvalidEventFieldsException, RoomNotFoundException {
+        Collection<Integer> ids;
+        Collection<EventSeries> series;
+        switch (scope) {
+            case "user":
+                ids = attendeeEvents.getOrDefault(details, Collections.emptySet());
+                series = Collections.emptyList();
+                break;
+            case "speaker":
+                ids = speakerSchedules.containsKey(details) ? speakerSchedules.get(details).getEventIds() :
+                        Collections.emptySet();
+                series = speakerSeries.getOrDefault(details, Collections.emptyList());
+                break;
+            case "room":
+                try {
+                    int roomNum = Integer.parseInt(details);
+                    if (!roomList.containsKey(roomNum))
+                        throw new RoomNotFoundException();
+                    ids = roomList.get(roomNum).getEventIds();
+                    series = roomSeries.getOrDefault(roomNum, Collections.emptyList());
+                } catch (NumberFormatException e) {
+                    throw new InvalidEventFieldsException("must be a number");
+                }
+                break;
+            case "all":
+                ids = eventList.keySet();
+                series = seriesList.values();
+                break;
+            default:
+                throw new InvalidEventFieldsException("cannot export the calendar of " + scope);
+        }
+        CalendarWriter calendar = new CalendarWriter(out);
+        calendar.writeHeader();
+        for (int id : ids) {
+            if (eventRooms.containsKey(id)) // events loaded from a file may have no room
+                calendar.writeEvent(getEventView(id));
+        }
+        for (EventSeries s : series) {
+            Room room = roomList.get(s.getRoomNum());
+            if (room != null) // ie. a saved series whose room is gone
+                calendar.writeSeries(s, room.getRoomCode());
+        }
+        calendar.writeFooter();
+    }
+
+    /**
+     * Gets the usernames of everyone signed up for at least one Event.
+     * @return The usernames, as a Set.
+     */
+    protected Set<String> getAttendeeUsernames() {
+        return new HashSet<>(attendeeEvents.keySet());
+    }
+
+    /**
+     * Gets the number of hours a room is booked for on a day.
+     * @param roomNum The number of the room.
+     * @param day The day, formatted as dd/MM/yyyy.
+     * @return The number of hours booked.
+     * @throws RoomNotFoundException If the room does not exist.
+     * @throws InvalidEventFieldsException If the day is not in the right format.
+     */
+    protected double getRoomBookedHours(int roomNum, String day) throws RoomNotFoundException,
+            InvalidEventFieldsException {
+        if (!roomList.containsKey(roomNum))
+            throw new RoomNotFoundException();
+        try {
+            LocalDate d = LocalDate.parse(day, DAY_FORMAT);
+            return analytics.getRoomBookedHours(roomNum, d);
+        } catch (DateTimeException e) {
+            throw new InvalidEventFieldsException("day not in format (dd/MM/yyyy)");
+        }
+    }
+
+    /**
+     * Gets the share of the seats of an Event that are taken.
+     * @param eventId The unique ID of the Event.
+     * @return The number of attendees divided by the capacity.
+     * @throws EventNotFoundException If the event does not exist.
+     */
+    protected double getFillRatio(int eventId) throws EventNotFoundException {
+        if (!eventList.containsKey(eventId))
+            throw new EventNotFoundException();
+        return analytics.getFillRatio(eventId);
+    }
+
+    /**
+     * Gets the share of all seats, over every Event, that are taken.
+     * @return The total number of attendees divided by the total capacity.
+     */
+    protected double getOverallFillRatio() {
+        return analytics.getOverallFillRatio();
+    }
+
+    /**
+     * Gets the Events with the most attendees.
+     * @param n The largest number of Events to get.
+     * @return The ids of up to n Events, the most attendees first.
+     */
+    protected List<Integer> getMostSubscribedEvents(int n) {
+        return analytics.getMostSubscribed(n);
+    }
+
+    /**
+     * Gets the numbers of every room, in increasing order.
+     * @return The room numbers.
+     */
+    protected List<Integer> getRoomNumbers() {
+        List<Integer> roomNums = new ArrayList<>(roomList.keySet());
+        Collections.sort(roomNums);
+        return roomNums;
+    }
+
     /**
      * Returns the usernames of the speakers speaking at the given event.
      * @param eventid The event in question.
@@ -197,13 +1023,15 @@ public class EventHandler {
      */
     public List<String> getAttendeeNames(int eventId) throws EventNotFoundException {
         if (eventList.containsKey(eventId))
-            return eventList.get(eventId).getEventGoers();
+            return new ArrayList<>(eventList.get(eventId).getEventGoers());
         else
             throw new EventNotFoundException();
     }
 
     /**
-     * Getter for all the Event ids within the EventHandler schedule of a certain criteria.
+     * Getter for all the Event ids within the EventHandler schedule of a certain criteria. Occurrences of series are
+     * made into Events only when the criteria covers a time range ("day" and "eventRange"), so "all" leaves out
+     * occurrences that are not Events yet; see getVirtualViews.
      * @param criteria Criteria of Events to look for (ie. "user" if searching Events with a certain user)
      * @param details Details of criteria (id. if you would like to search by user, this would be the username)
      * @return Event ids that follow the criteria, as a List of ints.
@@ -221,10 +1049,8 @@ public class EventHandler {
                 break;
             case "user":
                 // criteria: "user", details: username of user
-                for (Event e : eventList.values())
-                    if (e.getEventGoers().contains(details)) {
-                        ids.add(e.getUid());
-                    }
+                if (attendeeEvents.containsKey(details))
+                    ids.addAll(attendeeEvents.get(details));
                 break;
             case "speakers":
                 // criteria: "speakers", details: speaker usernames separated by commas, no spaces, as a String
@@ -241,16 +1067,10 @@ public class EventHandler {
             case "day":
                 // criteria: "day", details: date formatted as dd/MM/yyyy, as a String
                 try {
-                    DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-                    LocalDate d = LocalDate.parse(details, formatter);
-                    for (Event e : eventList.values()) {
-                        LocalDateTime eventDateTime = eventList.get(e.getUid()).getStartTime();
-                        if (eventDateTime.getYear() == d.getYear() &&
-                                eventDateTime.getMonth() == d.getMonth() &&
-                                eventDateTime.getDayOfYear() == d.getDayOfYear()) {
-                            ids.add(e.getUid());
-                        }
-                    }
+                    LocalDate d = LocalDate.parse(details, DAY_FORMAT);
+                    materializeSeries(null, d.atStartOfDay(), d.plusDays(1).atStartOfDay());
+                    ids.addAll(eventsByTime.getEventIdsBetween(d.atStartOfDay(), true,
+                            d.plusDays(1).atStartOfDay(), false));
                 } catch (DateTimeException e) {
                     throw new InvalidEventFieldsException("day not in format (dd/MM/yyyy)");
                 }
@@ -264,14 +1084,12 @@ public class EventHandler {
                     if (!eventList.containsKey(lower) || !eventList.containsKey(upper)) {
                         throw new EventNotFoundException();
                     }
+                    materializeSeries(null, eventList.get(lower).getStartTime(),
+                            eventList.get(upper).getStartTime());
                     ids.add(lower);
                     ids.add(upper);
-                    for (Event e : eventList.values()) {
-                        if (eventList.get(e.getUid()).getStartTime().isBefore(eventList.get(upper).getStartTime()) &&
-                                eventList.get(e.getUid()).getStartTime().isAfter(eventList.get(lower).getStartTime())) {
-                            ids.add(e.getUid());
-                        }
-                    }
+                    ids.addAll(eventsByTime.getEventIdsBetween(eventList.get(lower).getStartTime(), false,
+                            eventList.get(upper).getStartTime(), false));
                 } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
                     throw new InvalidEventFieldsException("event range not in format (starting id,ending id)");
                 }
@@ -280,6 +1098,255 @@ public class EventHandler {
         return ids;
     }
 
+    /**
+     * Gets one page of the Event ids of a certain criteria, sorted by start time and then by id. Listings of all Events
+     * and of a day are read straight from the start time index, so only the Events on the page are visited.
+     * @param criteria Criteria of Events to look for, as in getSpecificEventIds.
+     * @param details Details of criteria, as in getSpecificEventIds.
+     * @param cursor The cursor of the last Event on the previous page, or null for the first page.
+     * @param limit The largest number of Event ids to return.
+     * @return Up to limit Event ids that come after the cursor, as a List of ints.
+     * @throws InvalidEventFieldsException If a detail isn't valid to its criteria, or the cursor is invalid.
+     * @throws EventNotFoundException If the Event doesn't exist.
+     */
+    protected List<Integer> getSpecificEventIdsPage(String criteria, String details, String cursor, int limit)
+            throws InvalidEventFieldsException, EventNotFoundException {
+        LocalDateTime afterTime = getCursorTime(cursor);
+        int afterId = getCursorId(cursor);
+        LocalDateTime from = afterTime, to = null;
+        switch (criteria) {
+            case "all":
+                break;
+            case "day":
+                try {
+                    LocalDate d = LocalDate.parse(details, DAY_FORMAT);
+                    if (from == null || d.atStartOfDay().isAfter(from))
+                        from = d.atStartOfDay();
+                    to = d.plusDays(1).atStartOfDay();
+                } catch (DateTimeException e) {
+                    throw new InvalidEventFieldsException("day not in format (dd/MM/yyyy)");
+                }
+                break;
+            default:
+                return afterCursor(getSpecificEventIds(criteria, details).stream().distinct()
+                        .sorted(Comparator.comparing((Integer id) -> eventList.get(id).getStartTime())
+                                .thenComparing(id -> id)), afterTime, afterId)
+                        .limit(Math.max(limit, 0)).collect(Collectors.toList());
+        }
+        if (!seriesList.isEmpty() && limit > 0) {
+            // only occurrences up to the last Event already on the page can be on the page
+            List<Integer> page = afterCursor(eventsByTime.streamEventIdsBetween(from, to), afterTime, afterId)
+                    .limit(limit).collect(Collectors.toList());
+            LocalDateTime end = to;
+            if (page.size() == limit)
+                end = eventList.get(page.get(limit - 1)).getStartTime().plusMinutes(1);
+            materializeSeries(null, from, end, limit); // and no more occurrences than fit on the page
+        }
+        return afterCursor(eventsByTime.streamEventIdsBetween(from, to), afterTime, afterId)
+                .limit(Math.max(limit, 0)).collect(Collectors.toList());
+    }
+
+    /**
+     * Gets one page of the ids of the Events that meet every condition of a query, sorted by start time and then by id.
+     * As with getSpecificEventIdsPage, only the occurrences of series that fall on the page are made into Events.
+     * @param query The query.
+     * @param cursor The cursor of the last Event on the previous page, or null for the first page.
+     * @param limit The largest number of Event ids to return.
+     * @return Up to limit Event ids that come after the cursor, as a List of ints.
+     * @throws InvalidEventFieldsException If the cursor is invalid.
+     */
+    protected List<Integer> getEventIdsPage(EventQuery query, String cursor, int limit)
+            throws InvalidEventFieldsException {
+        LocalDateTime afterTime = getCursorTime(cursor);
+        int afterId = getCursorId(cursor);
+        if (query.getAttendee() == null && !seriesList.isEmpty() && limit > 0) { // nobody attends occurrences yet
+            List<Integer> page = getSortedEventIds(query, afterTime, afterId, limit);
+            LocalDateTime end = query.getTo();
+            if (page.size() == limit)
+                end = eventList.get(page.get(limit - 1)).getStartTime().plusMinutes(1);
+            long requirementMask = featureRegistry.getMask(query.getRequirements());
+            List<EventSeries> series = new ArrayList<>();
+            for (EventSeries s : seriesList.values())
+                if (seriesMatchesQuery(s, query, requirementMask))
+                    series.add(s);
+            materializeSeries(series, later(query.getFrom(), afterTime), end, limit);
+        }
+        return getSortedEventIds(query, afterTime, afterId, limit);
+    }
+
+    /**
+     * Gets the ids of the Events that meet every condition of a query and come after a cursor, sorted by start time
+     * and then by id. No occurrences are made into Events.
+     * @param query The query.
+     * @param afterTime The start time of the Event at the cursor, or null to keep every Event.
+     * @param afterId The id of the Event at the cursor.
+     * @param limit The largest number of Event ids to return.
+     * @return Up to limit Event ids, as a List of ints.
+     */
+    private List<Integer> getSortedEventIds(EventQuery query, LocalDateTime afterTime, int afterId, int limit) {
+        return afterCursor(streamEventIds(query).sorted(Comparator.comparing((Integer id) ->
+                eventList.get(id).getStartTime()).thenComparing(id -> id)), afterTime, afterId)
+                .limit(Math.max(limit, 0)).collect(Collectors.toList());
+    }
+
+    /**
+     * Gets the start time of the Event at a page cursor.
+     * @param cursor The cursor, or null for the first page.
+     * @return The start time, or null for the first page.
+     * @throws InvalidEventFieldsException If the cursor is invalid.
+     */
+    private LocalDateTime getCursorTime(String cursor) throws InvalidEventFieldsException {
+        if (cursor == null)
+            return null;
+        try {
+            return LocalDateTime.parse(cursor.split(",")[0]);
+        } catch (DateTimeException e) {
+            throw new InvalidEventFieldsException("invalid page cursor");
+        }
+    }
+
+    /**
+     * Gets the id of the Event at a page cursor.
+     * @param cursor The cursor, or null for the first page.
+     * @return The id, or -1 for the first page.
+     * @throws InvalidEventFieldsException If the cursor is invalid.
+     */
+    private int getCursorId(String cursor) throws InvalidEventFieldsException {
+        if (cursor == null)
+            return -1;
+        try {
+            return Integer.parseInt(cursor.split(",")[1]);
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new InvalidEventFieldsException("invalid page cursor");
+        }
+    }
+
+    /**
+     * Filters a stream of Event ids sorted by start time and then by id, keeping those after a cursor.
+     * @param ids The Event ids.
+     * @param afterTime The start time of the Event at the cursor, or null to keep every Event.
+     * @param afterId The id of the Event at the cursor.
+     * @return The Event ids after the cursor.
+     */
+    private Stream<Integer> afterCursor(Stream<Integer> ids, LocalDateTime afterTime, int afterId) {
+        if (afterTime == null)
+            return ids;
+        return ids.filter(e -> eventList.get(e).getStartTime().isAfter(afterTime)
+                || (eventList.get(e).getStartTime().isEqual(afterTime) && e > afterId));
+    }
+
+    /**
+     * Gets the cursor that marks the place of an Event in a listing sorted by start time.
+     * @param eventId The id of the Event.
+     * @return The cursor of the Event, as a String.
+     * @throws EventNotFoundException If the Event doesn't exist.
+     */
+    protected String getPageCursor(int eventId) throws EventNotFoundException {
+        Event event = eventList.get(eventId);
+        if (event == null)
+            throw new EventNotFoundException();
+        return event.getStartTime() + "," + eventId;
+    }
+
+    /**
+     * Lazily streams the ids of the Events that meet every condition of a query. Of the conditions backed by an index
+     * (attendee, speaker, room and time range), the one with the fewest Events is used to pick the candidates, and the
+     * rest are checked against each candidate as it is streamed. Occurrences of series in the time range are made into
+     * Events first; a query without a time range leaves them out. The Events should not be changed until the stream
+     * has been used.
+     * @param query The query.
+     * @return The ids of the matching Events, as a Stream of ints. The ids are in chronological order when the time
+     * range picks the candidates.
+     */
+    protected Stream<Integer> getEventIds(EventQuery query) {
+        if (query.getAttendee() == null && (query.getFrom() != null || query.getTo() != null)) {
+            // occurrences of a series nobody has signed up for yet are only found once they become Events; without a
+            // time range they are left virtual (see getVirtualViews)
+            if (query.getRoomNum() != null)
+                materializeSeries(roomSeries.getOrDefault(query.getRoomNum(), Collections.emptyList()),
+                        query.getFrom(), query.getTo());
+            else if (!query.getSpeakers().isEmpty())
+                materializeSeries(speakerSeries.getOrDefault(query.getSpeakers().iterator().next(),
+                        Collections.emptyList()), query.getFrom(), query.getTo());
+            else
+                materializeSeries(null, query.getFrom(), query.getTo());
+        }
+        return streamEventIds(query);
+    }
+
+    /**
+     * Lazily streams the ids of the Events that meet every condition of a query, without making any occurrences of
+     * series into Events.
+     * @param query The query.
+     * @return The ids of the matching Events, as a Stream of ints.
+     */
+    private Stream<Integer> streamEventIds(EventQuery query) {
+        Collection<Integer> candidates = null;
+        if (query.getAttendee() != null)
+            candidates = attendeeEvents.getOrDefault(query.getAttendee(), Collections.emptySet());
+        for (String speaker : query.getSpeakers()) {
+            TimeSlotIndex schedule = speakerSchedules.get(speaker);
+            Collection<Integer> ids = schedule == null ? Collections.emptySet() : schedule.getEventIds();
+            if (candidates == null || ids.size() < candidates.size())
+                candidates = ids;
+        }
+        if (query.getRoomNum() != null) {
+            Room room = roomList.get(query.getRoomNum());
+            Collection<Integer> ids = room == null ? Collections.emptySet() : room.getEventIds();
+            if (candidates == null || ids.size() < candidates.size())
+                candidates = ids;
+        }
+        boolean byTime = false;
+        if (query.getFrom() != null || query.getTo() != null)
+            byTime = candidates == null || eventsByTime.countEventIdsBetween(query.getFrom(), query.getTo(),
+                    candidates.size()) < candidates.size();
+        Stream<Integer> ids;
+        if (byTime)
+            ids = eventsByTime.streamEventIdsBetween(query.getFrom(), query.getTo());
+        else if (candidates != null)
+            ids = candidates.stream();
+        else
+            ids = eventList.keySet().stream();
+        long requirementMask = featureRegistry.getMask(query.getRequirements());
+        return ids.filter(id -> matchesQuery(id, query, requirementMask));
+    }
+
+    /**
+     * Checks if an Event meets every condition of a query.
+     * @param eventId The id of the Event.
+     * @param query The query.
+     * @param requirementMask The requirements of the query, as a bitmask from the FeatureRegistry.
+     * @return True if the Event meets the query, false otherwise.
+     */
+    private boolean matchesQuery(int eventId, EventQuery query, long requirementMask) {
+        Event event = eventList.get(eventId);
+        if (event == null)
+            return false;
+        if (query.getFrom() != null && event.getStartTime().isBefore(query.getFrom()))
+            return false;
+        if (query.getTo() != null && !event.getStartTime().isBefore(query.getTo()))
+            return false;
+        if (query.getAttendee() != null && !event.hasEventGoer(query.getAttendee()))
+            return false;
+        for (String speaker : query.getSpeakers()) {
+            TimeSlotIndex schedule = speakerSchedules.get(speaker);
+            if (schedule == null || !schedule.contains(eventId))
+                return false;
+        }
+        if (query.getRoomNum() != null) {
+            Room room = eventRooms.get(eventId); // events loaded from a file may have no room
+            if (room == null || room.getRoomNum() != query.getRoomNum())
+                return false;
+        }
+        if (query.getVIP() != null && event.getVIP().equals("true") != query.getVIP())
+            return false;
+        if (query.hasSeatsLeft() && event.isFull())
+            return false;
+        if (event.getRequirementMask() == FeatureRegistry.UNKNOWN_FEATURES) // ie. loaded with features no room offers
+            return event.getRequirements().containsAll(query.getRequirements());
+        return (event.getRequirementMask() & requirementMask) == requirementMask;
+    }
+
     /**
      * Gets the room code (room type abbreviation + room number) of a given event.
      * @param eventId The event we want the room number of.
@@ -287,59 +1354,112 @@ public class EventHandler {
      * @throws EventNotFoundException If the event does not exist.
      */
     private String getRoomCodeOfEvent(int eventId) throws EventNotFoundException {
-        for (Room r : roomList.values()) {
-            if (r.hasEventId(eventId)) {
-                return r.getRoomCode();
-            }
-        }
-        throw new EventNotFoundException();
+        Room room = eventRooms.get(eventId);
+        if (room == null)
+            throw new EventNotFoundException();
+        return room.getRoomCode();
     }
 
     /**
-     * Add up all the available features from all the rooms, and return a set of everything.
+     * Gets all the available features from all the rooms. The set is kept up to date as rooms are created.
      * @return A set of all available features in the system.
      */
     protected Set<String> getAvailableFeatures() {
-        Set<String> features = new HashSet<>();
-        for (Room r : roomList.values()) {
-            features.addAll(r.getFeatures());
-        }
-        return features;
+        return Collections.unmodifiableSet(availableFeatures);
     }
 
     /**
      * Gets the information associated with a specific Event within the EventHandler schedule.
      * @param eventId The unique ID for the Event in question.
-     * @return Returns a map of Strings which represent the information associated with an Event in schedule.
+     * @return Returns an unmodifiable map of Strings which represent the information associated with an Event in
+     * schedule.
      * @throws EventNotFoundException If the event does not exist in the schedule.
      */
     protected Map<String, String> getEventInfo(int eventId) throws EventNotFoundException {
-        HashMap<String, String> info = new HashMap<>();
-        if (!eventList.containsKey(eventId))
+        return getEventView(eventId).toMap();
+    }
+
+    /**
+     * Gets a view of the information associated with a specific Event within the EventHandler schedule. The view is
+     * built once and reused until the Event changes.
+     * @param eventId The unique ID for the Event in question.
+     * @return Returns an immutable view of the Event.
+     * @throws EventNotFoundException If the event does not exist in the schedule.
+     */
+    protected EventView getEventView(int eventId) throws EventNotFoundException {
+        Event event = eventList.get(eventId);
+        if (event == null)
             throw new EventNotFoundException();
-        info.put("name", eventList.get(eventId).getName());
-        info.put("time", eventList.get(eventId).getStartTime().toString());
-        info.put("roomNum", getRoomCodeOfEvent(eventId));
-        info.put("speakers", eventList.get(eventId).getSpeakerNames());
-        info.put("numAttendees", Integer.toString(eventList.get(eventId).numAttendees()));
-        info.put("isFull", Boolean.toString(eventList.get(eventId).isFull()));
-        info.put("eventId", Integer.toString(eventList.get(eventId).getUid()));
-        info.put("requirements", eventList.get(eventId).getRequirements().toString());
-        info.put("isVIP", eventList.get(eventId).getVIP());
-        return info;
+        EventView view = eventViews.get(eventId);
+        if (view != null && view.getVersion() == event.getVersion())
+            return view;
+        EventView built = new EventView(event, getRoomCodeOfEvent(eventId), event.getVersion());
+        eventViews.merge(eventId, built, (cached, fresh) -> cached.getVersion() > fresh.getVersion() ? cached : fresh);
+        return built;
+    }
+
+    /**
+     * Marks an Event as changed, so that its view is built again the next time it is asked for. This is called once
+     * the change is made: a view built while the change was under way carries the old version, so it is never reused.
+     * @param eventId The unique ID of the Event.
+     */
+    private void markChanged(int eventId) {
+        Event e = eventList.get(eventId);
+        if (e != null)
+            e.markChanged();
+        eventViews.remove(eventId);
     }
 
     /**
      * Gets rooms that have certain requirements and is greater or equal that a certain capacity.
      * @param requirements Requirements, as a Set of Strings.
      * @param capacity Capacity, as an int.
-     * @return A set of integers representing the recommended rooms for a given event.
+     * @return A set of integers representing the recommended rooms for a given event, the best fit first.
      */
     protected Set<Integer> getSuggestedRoomNumbers(Set<String> requirements, int capacity) {
-        Set<Integer> rooms = new HashSet<>(roomList.keySet());
-        for (int r : roomList.keySet()) {
-            if (!roomList.get(r).checkRequirements(requirements, capacity)) {
-                rooms.remove(r);
+        return getSuggestedRoomNumbers(requirements, capacity, (LocalDateTime) null, 0);
+    }
+
+    /**
+     * Gets rooms that have certain requirements, is greater or equal that a certain capacity, and are free during a
+     * certain time period.
+     * @param requirements Requirements, as a Set of Strings.
+     * @param capacity Capacity, as an int.
+     * @param time The start time of the time period, formatted as yyyy-MM-dd HH:mm.
+     * @param duration The duration of the time period, in hours.
+     * @return A set of integers representing the recommended rooms for a given event, the best fit first.
+     * @throws InvalidEventFieldsException If the time is not in the right format.
+     */
+    protected Set<Integer> getSuggestedRoomNumbers(Set<String> requirements, int capacity, String time,
+                                                   int duration) throws InvalidEventFieldsException {
+        try {
+            LocalDateTime dateTime = LocalDateTime.parse(time, DATE_FORMAT);
+            return getSuggestedRoomNumbers(requirements, capacity, dateTime, duration);
+        } catch (java.time.format.DateTimeParseException e) {
+            throw new InvalidEventFieldsException("invalid date format");
+        }
+    }
+
+    /**
+     * Gets rooms that have certain requirements and can hold an event of a certain capacity. Only rooms large enough
+     * for the event are visited, smallest first, so the best fitting rooms come first.
+     * @param requirements Requirements, as a Set of Strings.
+     * @param capacity Capacity, as an int.
+     * @param time The start time the rooms must be free at, or null if the rooms do not need to be free.
+     * @param duration The duration the rooms must be free for, in hours.
+     * @return A set of integers representing the recommended rooms for a given event, the best fit first.
+     */
+    private Set<Integer> getSuggestedRoomNumbers(Set<String> requirements, int capacity, LocalDateTime time,
+                                                 int duration) {
+        long requirementMask = featureRegistry.getMask(requirements);
+        Set<Integer> rooms = new LinkedHashSet<>();
+        for (Set<Integer> roomNums : roomsByEventCapacity.tailMap(capacity, true).values()) {
+            for (int roomNum : roomNums) {
+                Room r = roomList.get(roomNum);
+                if (r.checkRequirements(requirementMask, capacity) &&
+                        (time == null || !isRoomBusy(r, time, duration, -1))) {
+                    rooms.add(roomNum);
+                }
             }
         }
         return rooms;
@@ -349,53 +1469,63 @@ public class EventHandler {
      * Updates an Event given an event id and a list of data.
      * @param eventId Event id of the Event to update.
      * @param updatedData New data for the Event, as a List of Strings.
+     * @return The names of the attendees promoted from the waitlist because the capacity grew.
      * @throws EventNotFoundException If the event does not exist.
      * @throws InvalidEventFieldsException If the event fields entered are invalid.
      */
-    protected void updateEventData(int eventId, List<String> updatedData) throws EventNotFoundException, InvalidEventFieldsException {
+    protected List<String> updateEventData(int eventId, List<String> updatedData) throws EventNotFoundException,
+            InvalidEventFieldsException {
         if (!eventList.containsKey(eventId))
             throw new EventNotFoundException();
-        checkEventData(updatedData);
+        checkEventData(updatedData, eventId);
         String speakerNames = updatedData.get(0);
         String name = updatedData.get(1);
         String time = updatedData.get(2);
         int duration = Integer.parseInt(updatedData.get(3));
         int capacity = Integer.parseInt(updatedData.get(4));
         boolean vip = Boolean.parseBoolean(updatedData.get(5));
-        LocalDateTime dateTime = LocalDateTime.parse(time, DateTimeFormatter.ofPattern(DATE_FORMAT));
-        eventList.get(eventId).updateEventData(name, dateTime, duration, speakerNames, capacity, vip);
+        LocalDateTime dateTime = LocalDateTime.parse(time, DATE_FORMAT);
+        Room room = eventRooms.get(eventId);
+        if (room != null) {
+            if (isRoomBusy(room, dateTime, duration, eventId))
+                throw new InvalidEventFieldsException("room unavailable");
+            room.updateEventTime(eventId, dateTime, duration);
+        }
+        removeFromSpeakerSchedules(eventId, eventList.get(eventId).getSpeakerNames());
+        for (String attendeeName : eventList.get(eventId).updateEventData(name, dateTime, duration, speakerNames,
+                capacity, vip))
+            removeFromAttendeeEvents(attendeeName, eventId);
+        markChanged(eventId);
+        eventsByTime.add(eventId, dateTime, duration);
+        addToSpeakerSchedules(eventId, speakerNames, dateTime, duration);
+        for (String attendeeName : eventList.get(eventId).getEventGoers()) {
+            TimeSlotIndex schedule = attendeeSchedules.get(attendeeName);
+            synchronized (schedule) {
+                schedule.add(eventId, dateTime, duration);
+            }
+        }
+        analytics.updateEvent(eventId, dateTime, duration, capacity);
+        return promoteFromWaitlist(eventId);
     }
 
     /**
      * Check that each piece of the Event data is a valid and logical parameter.
      * @param data Each part of an event's information, as a List of Strings.
+     * @param eventId The id of the Event being updated, or -1 if the Event is being created.
      * @throws InvalidEventFieldsException If a piece of data is invalid.
      */
-    private void checkEventData(List<String> data) throws InvalidEventFieldsException{
+    private void checkEventData(List<String> data, int eventId) throws InvalidEventFieldsException{
         try {
             String speakerNames = data.get(0);
             String name = data.get(1);
             String time = data.get(2);
             int duration = Integer.parseInt(data.get(3));
             int capacity = Integer.parseInt(data.get(4));
-            LocalDateTime dateTime = LocalDateTime.parse(time, DateTimeFormatter.ofPattern(DATE_FORMAT));
-            Pattern pattern = Pattern.compile("[\\w|\\s_.]*");
-            Matcher matcher = pattern.matcher(name);
-            if (!matcher.matches())
-                throw new InvalidEventFieldsException("name cannot contain special characters");
-            if (dateTime.isBefore(LocalDateTime.now()))
-                throw new InvalidEventFieldsException("event cannot start in the past");
-            if (duration <= 0 || capacity <= 0)
-                throw new InvalidEventFieldsException("zeros and negatives not allowed");
-            for (String speakerName : speakerNames.split(",")) {
-                for (Event event : eventList.values()) {
-                    if (event.getSpeakerNames().equals(speakerName)) {
-                        if (event.hasTimeConflict(dateTime, duration)) {
-                            throw new InvalidEventFieldsException("speaker " + speakerName + " unavailable");
-                        }
-                    }
-                }
-            }
+            LocalDateTime dateTime = LocalDateTime.parse(time, DATE_FORMAT);
+            checkEventFields(name, dateTime, duration, capacity);
+            String speakerName = getUnavailableSpeaker(speakerNames, dateTime, duration, eventId);
+            if (speakerName != null)
+                throw new InvalidEventFieldsException("speaker " + speakerName + " unavailable");
         } catch (NumberFormatException e) {
             throw new InvalidEventFieldsException("must be a number");
         } catch (java.time.format.DateTimeParseException e) {
@@ -403,6 +1533,163 @@ public class EventHandler {
         }
     }
 
+    /**
+     * Check that the name, start time, duration and capacity of an Event are valid and logical.
+     * @param name The name of the Event.
+     * @param dateTime The start time of the Event.
+     * @param duration The duration of the Event, in hours.
+     * @param capacity The capacity of the Event.
+     * @throws InvalidEventFieldsException If a field is invalid.
+     */
+    private void checkEventFields(String name, LocalDateTime dateTime, int duration, int capacity)
+            throws InvalidEventFieldsException {
+        if (!NAME_PATTERN.matcher(name).matches())
+            throw new InvalidEventFieldsException("name cannot contain special characters");
+        if (dateTime.isBefore(LocalDateTime.now()))
+            throw new InvalidEventFieldsException("event cannot start in the past");
+        if (duration <= 0 || capacity <= 0)
+            throw new InvalidEventFieldsException("zeros and negatives not allowed");
+    }
+
+    /**
+     * Finds a speaker who is not free during a time period.
+     * @param speakerNames The usernames of the Speakers separated by commas, as a String.
+     * @param dateTime The start of the time period.
+     * @param duration The duration of the time period, in hours.
+     * @param eventId The id of an Event to leave out of the check (ie. the Event being updated), or -1.
+     * @return The username of a speaker who is unavailable, or null if all of them are free.
+     */
+    private String getUnavailableSpeaker(String speakerNames, LocalDateTime dateTime, int duration, int eventId) {
+        for (String speakerName : speakerNames.split(",")) {
+            TimeSlotIndex schedule = speakerSchedules.get(speakerName);
+            if (schedule != null && schedule.hasTimeConflict(dateTime, duration, eventId))
+                return speakerName;
+            if (getSeriesConflictEnd(speakerSeries.get(speakerName), dateTime, duration) != null)
+                return speakerName;
+        }
+        return null;
+    }
+
+    /**
+     * Adds an Event's time slot to the schedule of each of its speakers.
+     * @param eventId The unique ID of the Event.
+     * @param speakerNames The usernames of the Speakers of the Event separated by commas, as a String.
+     * @param time The start time of the Event.
+     * @param duration The duration of the Event, in hours.
+     */
+    private void addToSpeakerSchedules(int eventId, String speakerNames, LocalDateTime time, int duration) {
+        for (String speakerName : speakerNames.split(",")) {
+            if (!"".equals(speakerName))
+                speakerSchedules.computeIfAbsent(speakerName, k -> new TimeSlotIndex()).add(eventId, time, duration);
+        }
+    }
+
+    /**
+     * Removes an Event's time slot from the schedule of each of its speakers.
+     * @param eventId The unique ID of the Event.
+     * @param speakerNames The usernames of the Speakers of the Event separated by commas, as a String.
+     */
+    private void removeFromSpeakerSchedules(int eventId, String speakerNames) {
+        for (String speakerName : speakerNames.split(",")) {
+            if (speakerSchedules.containsKey(speakerName))
+                speakerSchedules.get(speakerName).remove(eventId);
+        }
+    }
+
+    /**
+     * Adds an Event to the set of events an attendee is signed up for, and its time slot to the attendee's schedule.
+     * Sign-ups for different events may run at the same time, so the update is done atomically for the attendee, and
+     * the check for an overlapping Event is done together with the update.
+     * @param attendeeName The username of the attendee.
+     * @param eventId The unique ID of the Event.
+     * @param allowOverlap Whether the attendee may attend another Event at the same time.
+     * @throws InvalidEventFieldsException If the attendee attends another Event at the same time and allowOverlap is
+     * false.
+     */
+    private void addToAttendeeEvents(String attendeeName, int eventId, boolean allowOverlap)
+            throws InvalidEventFieldsException {
+        Event event = eventList.get(eventId);
+        TimeSlotIndex schedule = attendeeSchedules.computeIfAbsent(attendeeName, k -> new TimeSlotIndex());
+        synchronized (schedule) {
+            if (!allowOverlap && schedule.hasTimeConflict(event.getStartTime(), event.getDuration(), eventId))
+                throw new InvalidEventFieldsException("you are already attending an event at that time");
+            schedule.add(eventId, event.getStartTime(), event.getDuration());
+        }
+        attendeeEvents.compute(attendeeName, (k, events) -> {
+            if (events == null)
+                events = ConcurrentHashMap.newKeySet();
+            events.add(eventId);
+            return events;
+        });
+    }
+
+    /**
+     * Removes an Event from the set of events an attendee is signed up for, and its time slot from their schedule.
+     * @param attendeeName The username of the attendee.
+     * @param eventId The unique ID of the Event.
+     */
+    private void removeFromAttendeeEvents(String attendeeName, int eventId) {
+        TimeSlotIndex schedule = attendeeSchedules.get(attendeeName);
+        if (schedule != null) {
+            synchronized (schedule) {
+                schedule.remove(eventId);
+            }
+        }
+        attendeeEvents.computeIfPresent(attendeeName, (k, events) -> {
+            events.remove(eventId);
+            return events.isEmpty() ? null : events;
+        });
+    }
+
+    /**
+     * Removes an Event from the set of events an attendee is on the waitlist of.
+     * @param attendeeName The username of the attendee.
+     * @param eventId The unique ID of the Event.
+     */
+    private void removeFromAttendeeWaitlists(String attendeeName, int eventId) {
+        attendeeWaitlists.computeIfPresent(attendeeName, (k, events) -> {
+            events.remove(eventId);
+            return events.isEmpty() ? null : events;
+        });
+    }
+
+    /**
+     * Checks if an attendee attends another Event that overlaps a given Event.
+     * @param attendeeName The username of the attendee.
+     * @param eventId The unique ID of the Event.
+     * @return True if there is a time conflict, false otherwise.
+     */
+    private boolean hasAttendeeTimeConflict(String attendeeName, int eventId) {
+        TimeSlotIndex schedule = attendeeSchedules.get(attendeeName);
+        if (schedule == null)
+            return false;
+        Event event = eventList.get(eventId);
+        synchronized (schedule) {
+            return schedule.hasTimeConflict(event.getStartTime(), event.getDuration(), eventId);
+        }
+    }
+
+    /**
+     * Gets the times on a day when an attendee is not at any Event.
+     * @param attendeeName The username of the attendee.
+     * @param day The day, formatted as dd/MM/yyyy.
+     * @return The end of each free time slot, keyed by its start, in chronological order.
+     * @throws InvalidEventFieldsException If the day is not in the right format.
+     */
+    protected SortedMap<LocalDateTime, LocalDateTime> getFreeSlots(String attendeeName, String day)
+            throws InvalidEventFieldsException {
+        LocalDate d;
+        try {
+            d = LocalDate.parse(day, DAY_FORMAT);
+        } catch (DateTimeException e) {
+            throw new InvalidEventFieldsException("day not in format (dd/MM/yyyy)");
+        }
+        TimeSlotIndex schedule = attendeeSchedules.getOrDefault(attendeeName, new TimeSlotIndex());
+        synchronized (schedule) {
+            return schedule.getFreeSlots(d.atStartOfDay(), d.plusDays(1).atStartOfDay());
+        }
+    }
+
     /**
      * Takes the list of attendees for an Event and creates a string of all of their usernames used for output file.
      * @param eventId The unique ID of this Event.
@@ -421,6 +1708,18 @@ public class EventHandler {
             throw new EventNotFoundException();
     }
 
+    /**
+     * Takes the waitlist for an Event and creates a string of all of their usernames used for output file.
+     * @param eventId The unique ID of this Event.
+     * @return Returns a string of the usernames on the waitlist, in waitlist order.
+     * @throws EventNotFoundException If the Event doesn't exist.
+     */
+    protected String waitlistToString(int eventId) throws EventNotFoundException {
+        if (!eventList.containsKey(eventId))
+            throw new EventNotFoundException();
+        return String.join(",", eventList.get(eventId).getWaitlist());
+    }
+
     /**
      * Encapsulates all Room information into a String
      * @return Returns the information of all Rooms in this Event Handler's roomList, as one String.
@@ -447,8 +1746,35 @@ public class EventHandler {
                     append("%%").append(attendeeNamesToString(data.getKey())).append("%%").
                     append(data.getValue().getSpeakerNames()).append("%%").append(data.getValue().
                     getRequirementsString()).append("%%").append(data.getValue().getCapacity()).
-                    append("%%").append(data.getValue().getVIP()).append("%%").append("\n");
+                    append("%%").append(data.getValue().getVIP()).append("%%").append(waitlistToString(data.getKey())).
+                    append("%%").append("\n");
+        }
+        return output.toString();
+    }
+
+    /**
+     * Encapsulates all series information into a String. The Events that occurrences have become are written by
+     * eventWriter.
+     * @return Returns the information of all series in this Event Handler, as one String.
+     */
+    public String seriesWriter() {
+        StringBuilder output = new StringBuilder();
+        for (EventSeries series : seriesList.values()) {
+            StringBuilder materialized = new StringBuilder();
+            for (Map.Entry<LocalDateTime, Integer> occurrence : series.getMaterialized().entrySet()) {
+                if (materialized.length() > 0)
+                    materialized.append(",");
+                materialized.append(occurrence.getKey()).append("=").append(occurrence.getValue());
+            }
+            output.append(series.getSeriesId()).append("%%").append(series.getName()).append("%%").
+                    append(series.getFirstStartTime()).append("%%").append(series.getDuration()).append("%%").
+                    append(series.getSpeakerNames()).append("%%").append(String.join(",", series.getRequirements())).
+                    append("%%").append(series.getCapacity()).append("%%").append(series.getVIP()).append("%%").
+                    append(series.getRoomNum()).append("%%").append(series.getIntervalDays()).append("%%").
+                    append(series.getNumOccurrences()).append("%%").append(series.getExceptions().stream().
+                    map(LocalDateTime::toString).collect(Collectors.joining(","))).append("%%").
+                    append(materialized).append("%%").append(series.getCreatedBy()).append("%%").append("\n");
         }
         return output.toString();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,48 @@
+package eventsfeature;
+
+import java.util.*;
+
+/**
+ * One page of Event information from a listing sorted by start time, along with the cursor to get the page after it.
+ * @author Kevin Cecco, Daniel Chan, William Wang
+ */
+public class EventPage {
+
+    private final List<Map<String, String>> events;
+    private final String nextCursor;
+
+    /**
+     * Constructs an EventPage.
+     * @param events The information of the Events on this page, in order.
+     * @param nextCursor The cursor of the page after this one, or null if this is the last page.
+     */
+    protected EventPage(List<Map<String, String>> events, String nextCursor) {
+        this.events = Collections.unmodifiableList(events);
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Getter for the information of the Events on this page.
+     * @return The information of the Events, as an unmodifiable List of Maps, with their keys and values as Strings.
+     */
+    public List<Map<String, String>> getEvents() {
+        return events;
+    }
+
+    /**
+     * Getter for the cursor of the page after this one.
+     * @return The cursor, or null if this is the last page.
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * Returns if there is a page after this one.
+     * @return True if there are more Events, false otherwise.
+     */
+    public boolean hasNextPage() {
+        return nextCursor != null;
+    }
+
+}
@@ -0,0 +1,109 @@
+package eventsfeature;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * A combination of conditions that Events must all meet to be returned by a search. Conditions that are not set match
+ * every Event. Instances are made with an EventQueryBuilder.
+ * @author Kevin Cecco, Daniel Chan, William Wang
+ */
+public class EventQuery {
+
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final Set<String> speakers;
+    private final String attendee;
+    private final Integer roomNum;
+    private final Boolean vip;
+    private final boolean hasSeatsLeft;
+    private final Set<String> requirements;
+
+    /**
+     * Constructs an EventQuery.
+     * @param from The earliest start time, inclusive, or null.
+     * @param to The latest start time, exclusive, or null.
+     * @param speakers The usernames of Speakers who must all speak at the Event.
+     * @param attendee The username of a user who must attend the Event, or null.
+     * @param roomNum The number of the room the Event must be held in, or null.
+     * @param vip The VIP status the Event must have, or null.
+     * @param hasSeatsLeft Whether the Event must still have free seats.
+     * @param requirements Features the Event must require.
+     */
+    protected EventQuery(LocalDateTime from, LocalDateTime to, Set<String> speakers, String attendee, Integer roomNum,
+                         Boolean vip, boolean hasSeatsLeft, Set<String> requirements) {
+        this.from = from;
+        this.to = to;
+        this.speakers = Collections.unmodifiableSet(new HashSet<>(speakers));
+        this.attendee = attendee;
+        this.roomNum = roomNum;
+        this.vip = vip;
+        this.hasSeatsLeft = hasSeatsLeft;
+        this.requirements = Collections.unmodifiableSet(new HashSet<>(requirements));
+    }
+
+    /**
+     * Getter for the earliest start time.
+     * @return The earliest start time, inclusive, or null if there is no lower bound.
+     */
+    protected LocalDateTime getFrom() {
+        return from;
+    }
+
+    /**
+     * Getter for the latest start time.
+     * @return The latest start time, exclusive, or null if there is no upper bound.
+     */
+    protected LocalDateTime getTo() {
+        return to;
+    }
+
+    /**
+     * Getter for the Speakers who must all speak at the Event.
+     * @return The usernames of the Speakers, possibly empty.
+     */
+    protected Set<String> getSpeakers() {
+        return speakers;
+    }
+
+    /**
+     * Getter for the user who must attend the Event.
+     * @return The username of the user, or null.
+     */
+    protected String getAttendee() {
+        return attendee;
+    }
+
+    /**
+     * Getter for the room the Event must be held in.
+     * @return The room number, or null.
+     */
+    protected Integer getRoomNum() {
+        return roomNum;
+    }
+
+    /**
+     * Getter for the VIP status the Event must have.
+     * @return The VIP status, or null.
+     */
+    protected Boolean getVIP() {
+        return vip;
+    }
+
+    /**
+     * Returns if the Event must still have free seats.
+     * @return True if only Events with free seats match, false otherwise.
+     */
+    protected boolean hasSeatsLeft() {
+        return hasSeatsLeft;
+    }
+
+    /**
+     * Getter for the features the Event must require.
+     * @return The features, possibly empty.
+     */
+    protected Set<String> getRequirements() {
+        return requirements;
+    }
+
+}
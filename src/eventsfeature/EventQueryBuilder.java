@@ -0,0 +1,104 @@
+package eventsfeature;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+
+/**
+ * A builder that creates an EventQuery. Each build method adds one condition; conditions not built match every Event.
+ * @author Kevin Cecco, Daniel Chan, William Wang
+ */
+public class EventQueryBuilder {
+
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private final Set<String> speakers = new HashSet<>();
+    private String attendee;
+    private Integer roomNum;
+    private Boolean vip;
+    private boolean hasSeatsLeft;
+    private final Set<String> requirements = new HashSet<>();
+
+    /**
+     * Builds a condition that the Event starts on the given day.
+     * @param day The day, formatted as dd/MM/yyyy.
+     * @throws InvalidEventFieldsException If the day is not in the right format.
+     */
+    public void buildDay(String day) throws InvalidEventFieldsException {
+        try {
+            LocalDate d = LocalDate.parse(day, DAY_FORMAT);
+            buildTimeRange(d.atStartOfDay(), d.plusDays(1).atStartOfDay());
+        } catch (java.time.format.DateTimeParseException e) {
+            throw new InvalidEventFieldsException("day not in format (dd/MM/yyyy)");
+        }
+    }
+
+    /**
+     * Builds a condition that the Event starts within a time range.
+     * @param from The earliest start time, inclusive.
+     * @param to The latest start time, exclusive.
+     */
+    public void buildTimeRange(LocalDateTime from, LocalDateTime to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Builds a condition that the given Speaker speaks at the Event. Building several Speakers requires all of them.
+     * @param speaker The username of the Speaker.
+     */
+    public void buildSpeaker(String speaker) {
+        speakers.add(speaker);
+    }
+
+    /**
+     * Builds a condition that the given user attends the Event.
+     * @param attendee The username of the user.
+     */
+    public void buildAttendee(String attendee) {
+        this.attendee = attendee;
+    }
+
+    /**
+     * Builds a condition that the Event is held in the given room.
+     * @param roomNum The room number.
+     */
+    public void buildRoom(int roomNum) {
+        this.roomNum = roomNum;
+    }
+
+    /**
+     * Builds a condition on the VIP status of the Event.
+     * @param vip True to match only VIP Events, false to match only non-VIP Events.
+     */
+    public void buildVIP(boolean vip) {
+        this.vip = vip;
+    }
+
+    /**
+     * Builds a condition that the Event still has free seats.
+     */
+    public void buildHasSeatsLeft() {
+        this.hasSeatsLeft = true;
+    }
+
+    /**
+     * Builds a condition that the Event requires the given features.
+     * @param features The features.
+     */
+    public void buildRequirements(Set<String> features) {
+        requirements.addAll(features);
+    }
+
+    /**
+     * Builds the EventQuery object.
+     * @return The EventQuery with every condition built so far.
+     */
+    public EventQuery buildEventQuery() {
+        return new EventQuery(from, to, speakers, attendee, roomNum, vip, hasSeatsLeft, requirements);
+    }
+
+}
@@ -0,0 +1,338 @@
+package eventsfeature;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * An entity class representing a recurring series of Events, held in the same room at the same time of day every few
+ * days. Occurrences are only virtual until a search touches them, at which point each one becomes an Event of its own
+ * with its own attendee list.
+ * @author Kevin Cecco, Daniel Chan, William Wang
+ */
+public class EventSeries {
+
+    private final int seriesId;
+    private final String name;
+    private final LocalDateTime firstStartTime;
+    private final int duration; // in hours
+    private final String speakerNames;
+    private final int capacity;
+    private final Set<String> requirements;
+    private final long requirementMask; // requirements as a bitmask from the FeatureRegistry
+    private final boolean vip;
+    private final int roomNum;
+    private final int intervalDays; // the recurrence rule: one occurrence every intervalDays days
+    private final int numOccurrences;
+    private final TreeSet<LocalDateTime> exceptions; // start times of cancelled occurrences
+    private final TreeMap<LocalDateTime, Integer> materialized; // occurrence start time -> id of its Event
+    private final String createdBy; // username of the Organizer who created the series
+
+    /**
+     * Constructs an instance of EventSeries.
+     * @param seriesId The unique ID of the series.
+     * @param name The name of each occurrence.
+     * @param firstStartTime The start time of the first occurrence.
+     * @param duration The duration of each occurrence, in hours.
+     * @param speakerNames The usernames of the Speakers of each occurrence separated by commas.
+     * @param capacity The capacity of each occurrence.
+     * @param requirements The requirements of each occurrence.
+     * @param requirementMask The requirements of each occurrence, as a bitmask from the FeatureRegistry.
+     * @param vip The VIP status of each occurrence.
+     * @param roomNum The number of the room the occurrences are held in.
+     * @param intervalDays The number of days between the starts of two occurrences in a row.
+     * @param numOccurrences The number of occurrences, counting cancelled ones.
+     * @param createdBy The username of the Organizer who created the series.
+     */
+    protected EventSeries(int seriesId, String name, LocalDateTime firstStartTime, int duration, String speakerNames,
+                          int capacity, Set<String> requirements, long requirementMask, boolean vip, int roomNum,
+                          int intervalDays, int numOccurrences, String createdBy) {
+        this.seriesId = seriesId;
+        this.name = name;
+        this.firstStartTime = firstStartTime;
+        this.duration = duration;
+        this.speakerNames = speakerNames;
+        this.capacity = capacity;
+        this.requirements = new HashSet<>(requirements);
+        this.requirementMask = requirementMask;
+        this.vip = vip;
+        this.roomNum = roomNum;
+        this.intervalDays = intervalDays;
+        this.numOccurrences = numOccurrences;
+        this.exceptions = new TreeSet<>();
+        this.materialized = new TreeMap<>();
+        this.createdBy = createdBy;
+    }
+
+    /**
+     * Getter for the unique ID of this series.
+     * @return The unique ID of this series.
+     */
+    protected int getSeriesId() {
+        return seriesId;
+    }
+
+    /**
+     * Getter for the name of each occurrence.
+     * @return The name of each occurrence.
+     */
+    protected String getName() {
+        return name;
+    }
+
+    /**
+     * Getter for the start time of the first occurrence.
+     * @return The start time of the first occurrence.
+     */
+    protected LocalDateTime getFirstStartTime() {
+        return firstStartTime;
+    }
+
+    /**
+     * Getter for the duration of each occurrence.
+     * @return The duration of each occurrence, in hours.
+     */
+    protected int getDuration() {
+        return duration;
+    }
+
+    /**
+     * Getter for the usernames of the Speakers of each occurrence.
+     * @return The usernames of the Speakers separated by commas.
+     */
+    protected String getSpeakerNames() {
+        return speakerNames;
+    }
+
+    /**
+     * Getter for the capacity of each occurrence.
+     * @return The capacity of each occurrence.
+     */
+    protected int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Getter for the requirements of each occurrence.
+     * @return The requirements of each occurrence.
+     */
+    protected Set<String> getRequirements() {
+        return requirements;
+    }
+
+    /**
+     * Getter for the requirements of each occurrence, as a bitmask.
+     * @return The bitmask from the FeatureRegistry.
+     */
+    protected long getRequirementMask() {
+        return requirementMask;
+    }
+
+    /**
+     * Getter for the VIP status of each occurrence.
+     * @return True if the occurrences are VIP only, false otherwise.
+     */
+    protected boolean getVIP() {
+        return vip;
+    }
+
+    /**
+     * Getter for the number of the room the occurrences are held in.
+     * @return The room number.
+     */
+    protected int getRoomNum() {
+        return roomNum;
+    }
+
+    /**
+     * Getter for the number of days between the starts of two occurrences in a row.
+     * @return The interval, in days.
+     */
+    protected int getIntervalDays() {
+        return intervalDays;
+    }
+
+    /**
+     * Getter for the number of occurrences, counting cancelled ones.
+     * @return The number of occurrences.
+     */
+    protected int getNumOccurrences() {
+        return numOccurrences;
+    }
+
+    /**
+     * Getter for the start times of the cancelled occurrences.
+     * @return The start times of the cancelled occurrences, in chronological order.
+     */
+    protected Set<LocalDateTime> getExceptions() {
+        return Collections.unmodifiableSet(exceptions);
+    }
+
+    /**
+     * Getter for the occurrences that have become Events.
+     * @return The ids of the Events, keyed by the start time of their occurrence, in chronological order.
+     */
+    protected Map<LocalDateTime, Integer> getMaterialized() {
+        return Collections.unmodifiableMap(materialized);
+    }
+
+    /**
+     * Gets the number of occurrences that are still virtual, ie. neither cancelled nor made into Events.
+     * @return The number of virtual occurrences.
+     */
+    protected int getNumVirtual() {
+        return numOccurrences - exceptions.size() - materialized.size();
+    }
+
+    /**
+     * Getter for the username of the Organizer who created the series.
+     * @return The username of the Organizer.
+     */
+    protected String getCreatedBy() {
+        return createdBy;
+    }
+
+    /**
+     * Returns if a Speaker speaks at this series.
+     * @param speakerName The username of the Speaker.
+     * @return True if the Speaker speaks at each occurrence, false otherwise.
+     */
+    protected boolean hasSpeaker(String speakerName) {
+        return Arrays.asList(speakerNames.split(",")).contains(speakerName);
+    }
+
+    /**
+     * Gets the start time of an occurrence.
+     * @param index The index of the occurrence, starting at 0.
+     * @return The start time of the occurrence.
+     */
+    protected LocalDateTime getOccurrenceStart(int index) {
+        return firstStartTime.plusDays((long) index * intervalDays);
+    }
+
+    /**
+     * Returns if a start time is the start time of one of the occurrences, whether or not it is cancelled.
+     * @param time The start time.
+     * @return True if an occurrence starts at that time, false otherwise.
+     */
+    protected boolean isOccurrence(LocalDateTime time) {
+        long index = indexBefore(time);
+        return index >= 0 && index < numOccurrences && getOccurrenceStart((int) index).isEqual(time);
+    }
+
+    /**
+     * Gets the start times of the virtual occurrences starting within a time range. Cancelled occurrences and those
+     * that have become Events are left out. Either end of the range may be left open.
+     * @param from The earliest start time, inclusive, or null.
+     * @param to The latest start time, exclusive, or null.
+     * @return The start times of the virtual occurrences, in chronological order.
+     */
+    protected List<LocalDateTime> getVirtualOccurrences(LocalDateTime from, LocalDateTime to) {
+        return getVirtualOccurrences(from, to, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Gets the start times of the first few virtual occurrences starting within a time range. Cancelled occurrences
+     * and those that have become Events are left out. Either end of the range may be left open.
+     * @param from The earliest start time, inclusive, or null.
+     * @param to The latest start time, exclusive, or null.
+     * @param limit The largest number of start times to return.
+     * @return The start times of the virtual occurrences, in chronological order.
+     */
+    protected List<LocalDateTime> getVirtualOccurrences(LocalDateTime from, LocalDateTime to, int limit) {
+        List<LocalDateTime> times = new ArrayList<>();
+        long first = from == null ? 0 : Math.max(0, indexBefore(from));
+        for (long i = first; i < numOccurrences && times.size() < limit; i++) {
+            LocalDateTime start = getOccurrenceStart((int) i);
+            if (to != null && !start.isBefore(to))
+                break;
+            if ((from == null || !start.isBefore(from)) && isVirtual(start))
+                times.add(start);
+        }
+        return times;
+    }
+
+    /**
+     * Gets the time at which every virtual occurrence overlapping a time period is over. Only the occurrences starting
+     * near the time period are looked at, so the check does not depend on the length of the series.
+     * @param time Time the time period begins at, as a LocalDateTime.
+     * @param duration Duration the time period lasts for, in hours as an int.
+     * @return The latest end time of the overlapping occurrences, or null if there is no time conflict.
+     */
+    protected LocalDateTime getConflictEnd(LocalDateTime time, int duration) {
+        LocalDateTime conflictEnd = null;
+        long first = Math.max(0, indexBefore(time.minusHours(this.duration)));
+        for (long i = first; i < numOccurrences; i++) {
+            LocalDateTime start = getOccurrenceStart((int) i);
+            if (start.isAfter(time.plusHours(Math.max(duration, 0))))
+                break;
+            if (isVirtual(start) && overlaps(start, time, duration))
+                conflictEnd = start.plusHours(this.duration);
+        }
+        return conflictEnd;
+    }
+
+    /**
+     * Records that an occurrence has become an Event.
+     * @param time The start time of the occurrence.
+     * @param eventId The id of the Event.
+     */
+    protected void addMaterialized(LocalDateTime time, int eventId) {
+        materialized.put(time, eventId);
+    }
+
+    /**
+     * Cancels an occurrence, so that it is no longer part of the series.
+     * @param time The start time of the occurrence.
+     * @return The id of the Event the occurrence had become, or null if it was still virtual.
+     */
+    protected Integer cancelOccurrence(LocalDateTime time) {
+        exceptions.add(time);
+        return materialized.remove(time);
+    }
+
+    /**
+     * Cancels the occurrence that had become a given Event, ie. when that Event is removed.
+     * @param eventId The id of the Event.
+     */
+    protected void cancelMaterialized(int eventId) {
+        for (Map.Entry<LocalDateTime, Integer> occurrence : materialized.entrySet()) {
+            if (occurrence.getValue() == eventId) {
+                cancelOccurrence(occurrence.getKey());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns if an occurrence is still virtual, ie. neither cancelled nor made into an Event.
+     * @param time The start time of the occurrence.
+     * @return True if the occurrence is virtual, false otherwise.
+     */
+    private boolean isVirtual(LocalDateTime time) {
+        return !exceptions.contains(time) && !materialized.containsKey(time);
+    }
+
+    /**
+     * Gets the index of the last occurrence starting at or before a time, ignoring the number of occurrences.
+     * @param time The time.
+     * @return The index, which is negative if the series starts after the time.
+     */
+    private long indexBefore(LocalDateTime time) {
+        return Math.floorDiv(Duration.between(firstStartTime, time).toMinutes(), (long) intervalDays * 24 * 60);
+    }
+
+    /**
+     * Checks if a time period overlaps an occurrence. Mirrors Event.hasTimeConflict.
+     * @param start The start time of the occurrence.
+     * @param time Time the time period begins at.
+     * @param duration Duration the time period lasts for, in hours.
+     * @return True if there is a time conflict, false otherwise.
+     */
+    private boolean overlaps(LocalDateTime start, LocalDateTime time, int duration) {
+        if (start.isEqual(time))
+            return true;
+        return time.isAfter(start.minusHours(duration)) && time.isBefore(start.plusHours(this.duration));
+    }
+
+}
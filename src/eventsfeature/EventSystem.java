@@ -1,27 +1,52 @@
 package eventsfeature;
 
 import usersfeature.*;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /** Represents a controller specific to the events code. Takes in input from the user, and calls event use case methods.
+ * Signing up for, leaving and waiting for events and looking up single events may be called from several threads at
+ * once. Adding, changing, removing and listing events wait until those are done, and are done one at a time. Streams of
+ * events are read as they are consumed, so they are only safe to consume while no events are being changed.
  * @author Kevin Cecco, Daniel Chan, William Wang
  */
 public class EventSystem {
 
+    private static final int EVENT_LOCK_STRIPES = 64;
+    private static final DateTimeFormatter SLOT_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+
     private final EventHandler eventHandler;
     private final UserHandler userHandler;
+    private final ReentrantLock[] eventLocks; // sign-ups for events in the same stripe are done one at a time
+    private final ReentrantReadWriteLock eventsLock; // sign-ups share it; changes to the set of events hold it alone
 
     /**
      * Constructs and initializes an instance of EventSystem.
      * @param eventData The data for events to initialize with, as a string.
      * @param roomData The data for rooms to initialize with, as a string.
+     * @param seriesData The data for recurring series to initialize with, as a string.
      * @param userHandler The user handler in the system.
      * @param eventHandler The event handler in the system.
      */
-    public EventSystem(String eventData, String roomData, UserHandler userHandler, EventHandler eventHandler) {
+    public EventSystem(String eventData, String roomData, String seriesData, UserHandler userHandler,
+                       EventHandler eventHandler) {
         this.eventHandler = eventHandler;
         this.userHandler = userHandler;
+        this.eventLocks = new ReentrantLock[EVENT_LOCK_STRIPES];
+        for (int i = 0; i < EVENT_LOCK_STRIPES; i++)
+            eventLocks[i] = new ReentrantLock();
+        this.eventsLock = new ReentrantReadWriteLock();
         this.roomReader(roomData);
+        this.seriesReader(seriesData);
         this.eventReader(eventData);
     }
 
@@ -46,65 +71,109 @@ public class EventSystem {
      * @param input A string representing data about rooms.
      */
     protected void roomReader(String input){
-       if (input!= null && input.length() > 0){
-           String[] inputSplit = input.split("\\r?\\n");
-           for (String rooms : inputSplit){
-               String [] info = rooms.split("%%");
-               int roomNum = Integer.parseInt(info[0]);
-               String [] eventIds = info[1].split(",");
-               int capacity = Integer.parseInt(info[2]);
-               String room = info[3].substring(0,2);
-               String roomType;
-               if (room.equals("CC")){
-                   roomType = "convention";
-               } else if (room.equals("CL")){
-                   roomType = "classroom";
-               } else {
-                   roomType = "auditorium";
-               }
-               try{
-                   addRoom(roomNum, capacity, roomType);
-                   for (String e : eventIds){
-                       eventHandler.addEventsToRoom(roomNum, Integer.parseInt(e));
-                   }
-               } catch (InvalidEventFieldsException | NumberFormatException ignored){}
-           }
-       }
-    }
-
-    /**
-     * Method calls the Persistence class to read from the file data associated with Events and Rooms.
+        RecordTokenizer records = new RecordTokenizer(input);
+        while (records.nextRecord()) {
+            try {
+                int roomNum = records.nextInt();
+                List<String> eventIds = records.nextList();
+                int capacity = records.nextInt();
+                String room = records.nextField();
+                String roomType;
+                if (room.startsWith("CC")){
+                    roomType = "convention";
+                } else if (room.startsWith("CL")){
+                    roomType = "classroom";
+                } else {
+                    roomType = "auditorium";
+                }
+                addRoom(roomNum, capacity, roomType);
+                for (String e : eventIds){
+                    eventHandler.addEventsToRoom(roomNum, Integer.parseInt(e));
+                }
+            } catch (InvalidEventFieldsException | NumberFormatException ignored){}
+        }
+    }
+
+    /**
+     * Initializes the recurring series that were saved in the system. The Events that occurrences had become are read
+     * afterwards, along with the other events.
+     * @param input A string representing data about series.
+     */
+    protected void seriesReader(String input) {
+        RecordTokenizer records = new RecordTokenizer(input);
+        while (records.nextRecord()) {
+            try {
+                int seriesId = records.nextInt();
+                String name = records.nextField();
+                LocalDateTime firstStartTime = records.nextDateTime();
+                int duration = records.nextInt();
+                String speakers = records.nextField();
+                Set<String> feat = new HashSet<>(records.nextList());
+                int capacity = records.nextInt();
+                boolean vip = Boolean.parseBoolean(records.nextField());
+                int roomNum = records.nextInt();
+                int intervalDays = records.nextInt();
+                int numOccurrences = records.nextInt();
+                List<LocalDateTime> exceptions = new ArrayList<>();
+                for (String time : records.nextList())
+                    exceptions.add(LocalDateTime.parse(time));
+                Map<LocalDateTime, Integer> materialized = new HashMap<>();
+                for (String occurrence : records.nextList()) {
+                    int split = occurrence.indexOf('=');
+                    materialized.put(LocalDateTime.parse(occurrence.substring(0, split)),
+                            Integer.parseInt(occurrence.substring(split + 1)));
+                }
+                String createdBy = records.nextField();
+                eventHandler.createSeriesForFile(seriesId, name, firstStartTime, duration, speakers, feat, capacity,
+                        vip, roomNum, intervalDays, numOccurrences, exceptions, materialized, createdBy);
+            } catch (NumberFormatException | java.time.DateTimeException | IndexOutOfBoundsException ignored) {}
+        }
+    }
+
+    /**
+     * Method calls the Persistence class to read from the file data associated with Events and Rooms. Attendees and
+     * waitlists are attached to each event all at once; the user side of their sign-ups (friends and event lists) is
+     * saved with the users, so it is not redone here.
      * @param input The string of data from the file.
      */
     protected void eventReader(String input){
-        if (input != null && input.length()>0) {
-            String[] inputSplit = input.split("\\r?\\n");
-            for (String events : inputSplit) {
-                String [] specs = events.split("%%");
-                int eventId = Integer.parseInt(specs[0]);
-                String name = specs[1];
-                String dateTime = specs[2].replace("T", " ");
-                int duration = Integer.parseInt(specs[3]);
-                String [] attendees = specs[4].split(",");
-                String speakers = specs[5];
-                String [] features = specs[6].split(",");
-                int capacity = Integer.parseInt(specs[7]);
-                boolean vip = Boolean.parseBoolean(specs[8]);
-                Set<String> feat = new HashSet<>();
-                Collections.addAll(feat, features);
-                try {
-                    eventHandler.createEventForFile(eventId , name, dateTime, duration,
-                            speakers, feat, capacity, vip);
-                    for (String person : attendees) {
-                        if (!person.equals("")) {
-                            attendEvent(Integer.parseInt(specs[0]), person);
-                        }
-                    }
-                } catch (RoomNotFoundException | EventNotFoundException | InvalidEventFieldsException ignored) {}
-            }
+        RecordTokenizer records = new RecordTokenizer(input);
+        while (records.nextRecord()) {
+            try {
+                int eventId = records.nextInt();
+                String name = records.nextField();
+                LocalDateTime dateTime = records.nextDateTime();
+                int duration = records.nextInt();
+                List<String> attendees = records.nextList();
+                String speakers = records.nextField();
+                Set<String> feat = new HashSet<>(records.nextList());
+                int capacity = records.nextInt();
+                boolean vip = Boolean.parseBoolean(records.nextField());
+                List<String> waitlist = records.nextList();
+                eventHandler.createEventForFile(eventId , name, dateTime, duration,
+                        speakers, feat, capacity, vip);
+                eventHandler.addAttendeesForFile(eventId, getAllowedAttendees(attendees, vip));
+                eventHandler.addWaitlistForFile(eventId, getAllowedAttendees(waitlist, vip));
+            } catch (NumberFormatException | java.time.DateTimeException | EventNotFoundException
+                    | InvalidEventFieldsException ignored) {}
         }
     }
 
+    /**
+     * Picks out the users who may attend an event, leaving out users who no longer exist and, for VIP only events,
+     * attendees who are not VIPs.
+     * @param usernames The usernames of the users.
+     * @param vip The VIP status of the event.
+     * @return The usernames of the users who may attend, in the same order.
+     */
+    private List<String> getAllowedAttendees(List<String> usernames, boolean vip) {
+        List<String> allowed = new ArrayList<>(usernames.size());
+        for (String username : usernames)
+            if (userHandler.isTaken(username) && !(vip && userHandler.getUserType(username).equals("attendee")))
+                allowed.add(username);
+        return allowed;
+    }
+
     /**
      * Adds a room to the handler.
      * @param roomNum The number of the room to add.
@@ -113,44 +182,221 @@ public class EventSystem {
      * @throws InvalidEventFieldsException If the room we are trying to add already exists.
      */
     public void addRoom(int roomNum, int capacity, String type) throws InvalidEventFieldsException {
-        eventHandler.createRoom(roomNum, capacity, type);
+        eventsLock.writeLock().lock();
+        try {
+            eventHandler.createRoom(roomNum, capacity, type);
+        } finally {
+            eventsLock.writeLock().unlock();
+        }
     }
 
     /**
      * Adds the current user to the event given by the eventId.
      * @param eventId The id of the event to attend.
      * @param username The username of the user that wants to attend.
+     * @return True if the user successfully attends the event, false if the event is VIP only.
      * @throws EventNotFoundException If the selected event does not exist.
-     * @throws InvalidEventFieldsException If the user is already signed up.
+     * @throws InvalidEventFieldsException If the user is already signed up or attends another event at the same time.
      * @throws UserNotFoundException If the user is not found.
      */
     public boolean attendEvent(int eventId, String username) throws
             EventNotFoundException, InvalidEventFieldsException, UserNotFoundException {
-        if (eventHandler.getEventInfo(eventId).get("isVIP").equals("true")
-                && userHandler.getUserType(username).equals("attendee")) {
+        eventsLock.readLock().lock();
+        ReentrantLock lock = getEventLock(eventId);
+        lock.lock();
+        try {
+            if (isVIPOnlyFor(eventId, username)) {
+                return false;
+            } else {
+                checkAttendanceUsers(eventId, username);
+                eventHandler.addAttendeeToEvent(username, eventId);
+                try {
+                    recordAttendance(eventId, username);
+                } catch (UserNotFoundException e) {
+                    eventHandler.undoAddAttendee(username, eventId); // a user was removed since the check
+                    throw e;
+                }
+                return true;
+            }
+        } finally {
+            lock.unlock();
+            eventsLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the given user to the waitlist of a full event. They are signed up automatically once a seat frees up, unless
+     * they attend another event at that time by then, in which case they are taken off the waitlist.
+     * @param eventId The id of the event to wait for.
+     * @param username The username of the user that wants to attend.
+     * @return The user's position on the waitlist, or 0 if the event is VIP only.
+     * @throws EventNotFoundException If the selected event does not exist.
+     * @throws InvalidEventFieldsException If the event is not full or the user is already signed up or waiting.
+     * @throws UserNotFoundException If the user is not found.
+     */
+    public int joinWaitlist(int eventId, String username) throws
+            EventNotFoundException, InvalidEventFieldsException, UserNotFoundException {
+        eventsLock.readLock().lock();
+        ReentrantLock lock = getEventLock(eventId);
+        lock.lock();
+        try {
+            if (isVIPOnlyFor(eventId, username))
+                return 0;
+            checkAttendanceUsers(eventId, username);
+            return eventHandler.addAttendeeToWaitlist(username, eventId);
+        } finally {
+            lock.unlock();
+            eventsLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the lock guarding sign-ups for an event.
+     * @param eventId The id of the event.
+     * @return The lock of the stripe the event falls in.
+     */
+    private ReentrantLock getEventLock(int eventId) {
+        return eventLocks[Math.floorMod(eventId, EVENT_LOCK_STRIPES)];
+    }
+
+    /**
+     * Checks that a user and every speaker of an event exist, so that recording the user's attendance cannot fail
+     * halfway through.
+     * @param eventId The id of the event.
+     * @param username The username of the user.
+     * @throws EventNotFoundException If the selected event does not exist.
+     * @throws UserNotFoundException If the user or a speaker is not found.
+     */
+    private void checkAttendanceUsers(int eventId, String username) throws EventNotFoundException,
+            UserNotFoundException {
+        synchronized (userHandler) {
+            userHandler.getUser(username);
+            for (String speakerUserName : eventHandler.getSpeakerNames(eventId).split(","))
+                if (!"".equals(speakerUserName)) {
+                    userHandler.getUser(speakerUserName);
+                }
+        }
+    }
+
+    /**
+     * Gets the times on a day when the given user is not at any event they signed up for.
+     * @param username The username of the user.
+     * @param day The day, formatted as dd/MM/yyyy.
+     * @return Each free time slot of the day, formatted as "HH:mm - HH:mm", in chronological order.
+     * @throws InvalidEventFieldsException If the day is not in the right format.
+     */
+    public List<String> getFreeSlots(String username, String day) throws InvalidEventFieldsException {
+        eventsLock.readLock().lock();
+        try {
+            List<String> slots = new ArrayList<>();
+            for (Map.Entry<LocalDateTime, LocalDateTime> slot : eventHandler.getFreeSlots(username, day).entrySet()) {
+                String end = slot.getValue().toLocalDate().isAfter(slot.getKey().toLocalDate()) ? "24:00" :
+                        SLOT_FORMAT.format(slot.getValue());
+                slots.add(SLOT_FORMAT.format(slot.getKey()) + " - " + end);
+            }
+            return slots;
+        } finally {
+            eventsLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the given user's position on the waitlist of an event.
+     * @param eventId The id of the event.
+     * @param username The username of the user.
+     * @return The user's position on the waitlist, starting at 1, or 0 if they are not waiting.
+     * @throws EventNotFoundException If the selected event does not exist.
+     */
+    public int getWaitlistPosition(int eventId, String username) throws EventNotFoundException {
+        eventsLock.readLock().lock();
+        ReentrantLock lock = getEventLock(eventId);
+        lock.lock();
+        try {
+            return eventHandler.getWaitlistPosition(username, eventId);
+        } finally {
+            lock.unlock();
+            eventsLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the given user's position on the waitlist of each event they are waiting for.
+     * @param username The username of the user.
+     * @return The user's position on each waitlist, starting at 1, keyed by event id, in increasing order of event id.
+     */
+    public SortedMap<Integer, Integer> getWaitlistPositions(String username) {
+        SortedMap<Integer, Integer> positions = new TreeMap<>();
+        for (int eventId : eventHandler.getWaitlistedEventIds(username)) {
+            try {
+                int position = getWaitlistPosition(eventId, username);
+                if (position > 0)
+                    positions.put(eventId, position);
+            } catch (EventNotFoundException ignored) {} // the event was removed meanwhile
+        }
+        return positions;
+    }
+
+    /**
+     * Checks if an event is VIP only and the given user is a regular attendee.
+     * @param eventId The id of the event.
+     * @param username The username of the user.
+     * @return True if the user cannot attend the event because it is VIP only, false otherwise.
+     * @throws EventNotFoundException If the selected event does not exist.
+     * @throws UserNotFoundException If the user is not found.
+     */
+    private boolean isVIPOnlyFor(int eventId, String username) throws EventNotFoundException, UserNotFoundException {
+        if (!eventHandler.getEventView(eventId).isVIP())
             return false;
-        } else {
-            eventHandler.addAttendeeToEvent(username, eventId);
-            String[] speakers = eventHandler.getSpeakerNames(eventId).split(",");
+        synchronized (userHandler) {
+            return userHandler.getUserType(username).equals("attendee");
+        }
+    }
+
+    /**
+     * Records on the user side that a user now attends an event: the user becomes a friend of each speaker, and the
+     * event is added to the user's list of events. Users are shared between events, so this is done under a lock on the
+     * user handler. The users are checked under the same lock before anything is changed, so either every change is
+     * made or none is.
+     * @param eventId The id of the event.
+     * @param username The username of the user attending the event.
+     * @throws EventNotFoundException If the selected event does not exist.
+     * @throws UserNotFoundException If the user or a speaker is not found.
+     */
+    private void recordAttendance(int eventId, String username) throws EventNotFoundException,
+            UserNotFoundException {
+        String[] speakers = eventHandler.getSpeakerNames(eventId).split(",");
+        synchronized (userHandler) {
+            checkAttendanceUsers(eventId, username);
             for (String speakerUserName : speakers)
                 if (!"".equals(speakerUserName)) {
                     userHandler.addFriend(speakerUserName, username);
                 }
             userHandler.addEventToUserList((eventId), username);
-            return true;
         }
     }
 
     /**
-     * Gets information from user about their username, roomNum, and eventId of event they want to leave
+     * Gets information from user about their username, roomNum, and eventId of event they want to leave. If the user
+     * is only on the waitlist, they are taken off it. The seat freed up goes to the next user on the waitlist.
      * @param eventId The id of the event to leave.
      * @param username The username of the user that wants to attend.
      * @throws EventNotFoundException If the selected event does not exist.
      * @throws InvalidEventFieldsException If the event field(s) are incorrect.
      */
     public void leaveEvent(int eventId, String username) throws EventNotFoundException, InvalidEventFieldsException{
-        eventHandler.removeAttendeeFromEvent(username, eventId);
-        userHandler.removeEventFromUserList(eventId, username);
+        eventsLock.readLock().lock();
+        ReentrantLock lock = getEventLock(eventId);
+        lock.lock();
+        try {
+            List<String> promoted = eventHandler.removeAttendeeFromEvent(username, eventId);
+            synchronized (userHandler) {
+                userHandler.removeEventFromUserList(eventId, username);
+            }
+            recordPromotions(eventId, promoted);
+        } finally {
+            lock.unlock();
+            eventsLock.readLock().unlock();
+        }
     }
 
     /**
@@ -171,12 +417,149 @@ public class EventSystem {
             if (!"".equals(speaker)) {
                 userHandler.getSpeaker(speaker);
             }
-        int createdEvent = eventHandler.createEvent(data, requirements);
-        for (String speaker : speakers)
+        eventsLock.writeLock().lock();
+        try {
+            int createdEvent = eventHandler.createEvent(data, requirements);
+            for (String speaker : speakers)
+                if (!"".equals(speaker)) {
+                    userHandler.createEvent(createdByUser, createdEvent, speaker);
+                }
+            return createdEvent;
+        } finally {
+            eventsLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Creates a recurring series of events, one every few days in the same room at the same time of day. Occurrences
+     * become events of their own once they are looked up, and can then be signed up for like any other event. Each
+     * one is then registered with the Speakers and the creating user, as createEvent does.
+     * @param speakerNames The names of the Speakers for the series, as a string.
+     * @param createdByUser The user who created the series.
+     * @param data A list of strings the user inputted for the first occurrence, as for createEvent.
+     * @param requirements The requirements for the series.
+     * @param intervalDays The number of days between two occurrences in a row (ie. 7 for weekly).
+     * @param numOccurrences The number of occurrences.
+     * @return The id of the series that was just created.
+     * @throws RoomNotFoundException If the room requested does not exist.
+     * @throws InvalidEventFieldsException If it was given invalid input, or the room or a speaker is not free.
+     * @throws UserNotFoundException If a speaker is not found, or the creating user is not an organizer.
+     */
+    public int createSeries(String speakerNames, String createdByUser, List<String> data, Set<String> requirements,
+                            int intervalDays, int numOccurrences) throws RoomNotFoundException,
+            InvalidEventFieldsException, UserNotFoundException {
+        userHandler.getOrganizer(createdByUser);
+        for (String speaker : speakerNames.split(","))
             if (!"".equals(speaker)) {
-                userHandler.createEvent(createdByUser, createdEvent, speaker);
+                userHandler.getSpeaker(speaker);
             }
-        return createdEvent;
+        eventsLock.writeLock().lock();
+        try {
+            return eventHandler.createSeries(data, requirements, intervalDays, numOccurrences, createdByUser);
+        } finally {
+            eventsLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Registers the occurrences of series that have become events since the last call with their Speakers and with the
+     * user who created the series, as createEvent does for other events. Occurrences whose speaker or organizer has
+     * since been removed are left unregistered.
+     */
+    private void registerOccurrences() {
+        for (Map.Entry<Integer, String> occurrence : eventHandler.takeNewOccurrences().entrySet()) {
+            for (String speaker : eventHandler.getSpeakerNames(occurrence.getKey()).split(","))
+                if (!"".equals(speaker)) {
+                    try {
+                        userHandler.createEvent(occurrence.getValue(), occurrence.getKey(), speaker);
+                    } catch (UserNotFoundException ignored) {}
+                }
+        }
+    }
+
+    /**
+     * Cancels one occurrence of a recurring series. If the occurrence is already an event, that event is removed.
+     * @param doneByUser User who cancelled the occurrence.
+     * @param seriesId The id of the series.
+     * @param time The start time of the occurrence, formatted as yyyy-MM-dd HH:mm.
+     * @throws EventNotFoundException If the series does not exist.
+     * @throws InvalidEventFieldsException If the series has no occurrence at that time.
+     * @throws UserNotFoundException If the user does not exist.
+     */
+    public void cancelOccurrence(String doneByUser, int seriesId, String time) throws EventNotFoundException,
+            InvalidEventFieldsException, UserNotFoundException {
+        eventsLock.writeLock().lock();
+        try {
+            String speakerNames = eventHandler.getSeriesSpeakerNames(seriesId);
+            int eventId = eventHandler.cancelOccurrence(seriesId, time);
+            if (eventId != -1)
+                deleteEventFromUsers(doneByUser, eventId, speakerNames);
+        } finally {
+            eventsLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a recurring series, along with every occurrence that is already an event.
+     * @param doneByUser User who removed the series.
+     * @param seriesId The id of the series.
+     * @throws EventNotFoundException If the series does not exist.
+     * @throws UserNotFoundException If the user does not exist.
+     */
+    public void removeSeries(String doneByUser, int seriesId) throws EventNotFoundException, UserNotFoundException {
+        eventsLock.writeLock().lock();
+        try {
+            String speakerNames = eventHandler.getSeriesSpeakerNames(seriesId);
+            for (int eventId : eventHandler.removeSeries(seriesId))
+                deleteEventFromUsers(doneByUser, eventId, speakerNames);
+        } finally {
+            eventsLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Automatically places a batch of events into rooms and start times, so that no room or speaker is double booked.
+     * @param createdByUser The user who is creating the events.
+     * @param data The data for each event: speaker usernames, name, earliest start time, duration, capacity, VIP status
+     *             and latest start time, as a List of Strings.
+     * @param requirements The requirements for each event, in the same order as data.
+     * @param timeBudgetMillis How long to spend placing events, in milliseconds.
+     * @return The event id created for each entry of data, in the same order, or -1 if it could not be placed.
+     */
+    public List<Integer> scheduleEvents(String createdByUser, List<List<String>> data, List<Set<String>> requirements,
+                                        long timeBudgetMillis) {
+        List<Integer> positions = new ArrayList<>();
+        List<List<String>> validData = new ArrayList<>();
+        List<Set<String>> validRequirements = new ArrayList<>();
+        for (int i = 0; i < data.size(); i++) {
+            try {
+                for (String speaker : data.get(i).get(0).split(","))
+                    if (!"".equals(speaker)) {
+                        userHandler.getSpeaker(speaker);
+                    }
+                positions.add(i);
+                validData.add(data.get(i));
+                validRequirements.add(requirements.get(i));
+            } catch (UserNotFoundException | IndexOutOfBoundsException ignored) {}
+        }
+        eventsLock.writeLock().lock();
+        try {
+            List<Integer> created = eventHandler.scheduleEvents(validData, validRequirements, timeBudgetMillis);
+            List<Integer> ids = new ArrayList<>(Collections.nCopies(data.size(), -1));
+            for (int i = 0; i < created.size(); i++) {
+                int eventId = created.get(i);
+                ids.set(positions.get(i), eventId);
+                if (eventId == -1)
+                    continue;
+                for (String speaker : validData.get(i).get(0).split(","))
+                    if (!"".equals(speaker)) {
+                        userHandler.createEvent(createdByUser, eventId, speaker);
+                    }
+            }
+            return ids;
+        } finally {
+            eventsLock.writeLock().unlock();
+        }
     }
 
     /**
@@ -187,9 +570,26 @@ public class EventSystem {
      * @throws UserNotFoundException If the user does not exist.
      */
     public void removeEvent(String doneByUser, int eventId) throws EventNotFoundException, UserNotFoundException {
-        String[] speakers = eventHandler.getSpeakerNames(eventId).split(",");
-        eventHandler.removeEvent(eventId);
-        for (String speaker : speakers) {
+        eventsLock.writeLock().lock();
+        try {
+            String speakerNames = eventHandler.getSpeakerNames(eventId);
+            eventHandler.removeEvent(eventId);
+            deleteEventFromUsers(doneByUser, eventId, speakerNames);
+        } finally {
+            eventsLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a removed event from the lists of the users.
+     * @param doneByUser User who removed the event.
+     * @param eventId The id of the event removed.
+     * @param speakerNames The usernames of the speakers of the event, separated by commas.
+     * @throws UserNotFoundException If the user does not exist.
+     */
+    private void deleteEventFromUsers(String doneByUser, int eventId, String speakerNames)
+            throws UserNotFoundException {
+        for (String speaker : speakerNames.split(",")) {
             if (!"".equals(speaker)) {
                 userHandler.deleteEvent(doneByUser, eventId, speaker);
             }
@@ -211,10 +611,38 @@ public class EventSystem {
                 userHandler.getSpeaker(speaker);
             }
         }
-        eventHandler.updateEventData(eventId, updatedData);
-        for (String speaker : speakers) {
-            if (!"".equals(speaker)) {
-                userHandler.createEvent(doneByUser, eventId, speaker);
+        eventsLock.writeLock().lock();
+        ReentrantLock lock = getEventLock(eventId);
+        lock.lock();
+        try {
+            List<String> promoted = eventHandler.updateEventData(eventId, updatedData);
+            for (String speaker : speakers) {
+                if (!"".equals(speaker)) {
+                    userHandler.createEvent(doneByUser, eventId, speaker);
+                }
+            }
+            recordPromotions(eventId, promoted);
+        } finally {
+            lock.unlock();
+            eventsLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Records on the user side that users promoted from the waitlist now attend an event. A promoted user who no longer
+     * exists is taken out of the event again, which promotes the next user on the waitlist in their place.
+     * @param eventId The id of the event.
+     * @param promoted The usernames of the promoted users.
+     * @throws EventNotFoundException If the selected event does not exist.
+     */
+    private void recordPromotions(int eventId, List<String> promoted) throws EventNotFoundException {
+        Deque<String> toRecord = new ArrayDeque<>(promoted);
+        while (!toRecord.isEmpty()) {
+            String promotedUsername = toRecord.pollFirst();
+            try {
+                recordAttendance(eventId, promotedUsername);
+            } catch (UserNotFoundException e) {
+                toRecord.addAll(eventHandler.removeAttendeeFromEvent(promotedUsername, eventId));
             }
         }
     }
@@ -226,7 +654,15 @@ public class EventSystem {
      * @throws EventNotFoundException If the given event does not exist.
      */
     public List<String> getAllAttendeeUsernames(int eventId) throws EventNotFoundException {
-        return eventHandler.getAttendeeNames(eventId);
+        eventsLock.readLock().lock();
+        ReentrantLock lock = getEventLock(eventId);
+        lock.lock();
+        try {
+            return eventHandler.getAttendeeNames(eventId);
+        } finally {
+            lock.unlock();
+            eventsLock.readLock().unlock();
+        }
     }
 
     /**
@@ -236,7 +672,31 @@ public class EventSystem {
      * @return A set of suggested rooms.
      */
     public Set<Integer> getSuggestedRoomNumbers(Set<String> requirements, int capacity) {
-        return eventHandler.getSuggestedRoomNumbers(requirements, capacity);
+        eventsLock.readLock().lock();
+        try {
+            return eventHandler.getSuggestedRoomNumbers(requirements, capacity);
+        } finally {
+            eventsLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets a list of suggested rooms that are free at a given time, based on a set of requirements and a capacity.
+     * @param requirements A set of requirements.
+     * @param capacity A integer representing the capacity that we need.
+     * @param time The start time of the event, formatted as yyyy-MM-dd HH:mm.
+     * @param duration The duration of the event, in hours.
+     * @return A set of suggested rooms, the best fit first.
+     * @throws InvalidEventFieldsException If the time is not in the right format.
+     */
+    public Set<Integer> getSuggestedRoomNumbers(Set<String> requirements, int capacity, String time, int duration)
+            throws InvalidEventFieldsException {
+        eventsLock.readLock().lock();
+        try {
+            return eventHandler.getSuggestedRoomNumbers(requirements, capacity, time, duration);
+        } finally {
+            eventsLock.readLock().unlock();
+        }
     }
 
     /**
@@ -246,7 +706,100 @@ public class EventSystem {
      * @throws EventNotFoundException If the event is not found.
      */
     public Map<String, String> getEventInfo(int eventId) throws EventNotFoundException {
-        return eventHandler.getEventInfo(eventId);
+        eventsLock.readLock().lock();
+        try {
+            return eventHandler.getEventInfo(eventId);
+        } finally {
+            eventsLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Getter for a typed view of a singular event.
+     * @param eventId The id of the event to get data for.
+     * @return An immutable view of the event.
+     * @throws EventNotFoundException If the event is not found.
+     */
+    public EventView getEventView(int eventId) throws EventNotFoundException {
+        eventsLock.readLock().lock();
+        try {
+            return eventHandler.getEventView(eventId);
+        } finally {
+            eventsLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets a new builder for a query that combines several conditions on events (ie. VIP events on a day with a
+     * certain speaker that still have seats).
+     * @return An empty EventQueryBuilder.
+     */
+    public EventQueryBuilder getEventQueryBuilder() {
+        return new EventQueryBuilder();
+    }
+
+    /**
+     * Lazily streams the ids of the events that meet every condition of a query.
+     * @param query The query, made with an EventQueryBuilder.
+     * @return The ids of the matching events, as a Stream of ints.
+     */
+    public Stream<Integer> getEventIds(EventQuery query) {
+        eventsLock.writeLock().lock();
+        try {
+            Stream<Integer> ids = eventHandler.getEventIds(query);
+            registerOccurrences();
+            return ids;
+        } finally {
+            eventsLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Lazily streams views of the events that meet every condition of a query. Without a time range, the views of
+     * occurrences of recurring series that are not events yet follow, each with the id -1.
+     * @param query The query, made with an EventQueryBuilder.
+     * @return Immutable views of the matching events, as a Stream.
+     */
+    public Stream<EventView> getEventViews(EventQuery query) {
+        eventsLock.writeLock().lock();
+        try {
+            return Stream.concat(getEventIds(query).map(eventHandler::getEventView),
+                    eventHandler.getVirtualViews(query));
+        } finally {
+            eventsLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Getter for one page of data from the events that meet every condition of a query, sorted by start time.
+     * Occurrences of recurring series become events once they fall on a page, as with getSpecificEventDataPage.
+     * @param query The query, made with an EventQueryBuilder.
+     * @param cursor The cursor of the page to get, from the previous page, or null for the first page.
+     * @param pageSize The largest number of events on the page.
+     * @return The page of event data.
+     * @throws InvalidEventFieldsException If the cursor or the page size is invalid.
+     * @throws EventNotFoundException If the event is not found.
+     */
+    public EventPage getEventDataPage(EventQuery query, String cursor, int pageSize) throws
+            InvalidEventFieldsException, EventNotFoundException {
+        if (pageSize < 1)
+            throw new InvalidEventFieldsException("page size must be at least 1");
+        eventsLock.writeLock().lock();
+        try {
+            List<Integer> ids = eventHandler.getEventIdsPage(query, cursor, pageSize + 1);
+            registerOccurrences();
+            String nextCursor = null;
+            if (ids.size() > pageSize) {
+                ids = ids.subList(0, pageSize);
+                nextCursor = eventHandler.getPageCursor(ids.get(pageSize - 1));
+            }
+            List<Map<String, String>> data = new ArrayList<>();
+            for (int id : ids)
+                data.add(eventHandler.getEventInfo(id));
+            return new EventPage(data, nextCursor);
+        } finally {
+            eventsLock.writeLock().unlock();
+        }
     }
 
     /**
@@ -259,11 +812,275 @@ public class EventSystem {
      */
     public List<Map<String, String>> getSpecificEventData(String criteria, String details) throws
             InvalidEventFieldsException, EventNotFoundException{
-        ArrayList<Map<String, String>> data = new ArrayList<>();
-        for (int id : eventHandler.getSpecificEventIds(criteria, details)) {
-            data.add(eventHandler.getEventInfo(id));
+        eventsLock.writeLock().lock();
+        try {
+            ArrayList<Map<String, String>> data = new ArrayList<>();
+            List<Integer> ids = eventHandler.getSpecificEventIds(criteria, details);
+            registerOccurrences();
+            for (int id : ids) {
+                data.add(eventHandler.getEventInfo(id));
+            }
+            if (criteria.equals("all")) // occurrences of recurring series that are not events yet, with the id -1
+                eventHandler.getVirtualViews(getEventQueryBuilder().buildEventQuery()).forEach(v -> data.add(v.toMap()));
+            return data;
+        } finally {
+            eventsLock.writeLock().unlock();
         }
-        return data;
+    }
+
+    /**
+     * Getter for one page of data from Events of a certain criteria, sorted by start time. Only the Events on the page
+     * are looked up, so the first page of a large listing is ready without building the whole listing.
+     * @param criteria Criteria of Events to look for (ie. "user" if searching Events with a certain user)
+     * @param details Details of criteria (id. if you would like to search by user, this would be the username)
+     * @param cursor The cursor of the page to get, from the previous page, or null for the first page.
+     * @param pageSize The largest number of Events on the page.
+     * @return The page of Event data.
+     * @throws InvalidEventFieldsException If the event field, the cursor or the page size is invalid.
+     * @throws EventNotFoundException If the event is not found.
+     */
+    public EventPage getSpecificEventDataPage(String criteria, String details, String cursor, int pageSize) throws
+            InvalidEventFieldsException, EventNotFoundException {
+        if (pageSize < 1)
+            throw new InvalidEventFieldsException("page size must be at least 1");
+        eventsLock.writeLock().lock();
+        try {
+            List<Integer> ids = eventHandler.getSpecificEventIdsPage(criteria, details, cursor, pageSize + 1);
+            registerOccurrences();
+            String nextCursor = null;
+            if (ids.size() > pageSize) {
+                ids = ids.subList(0, pageSize);
+                nextCursor = eventHandler.getPageCursor(ids.get(pageSize - 1));
+            }
+            List<Map<String, String>> data = new ArrayList<>();
+            for (int id : ids)
+                data.add(eventHandler.getEventInfo(id));
+            return new EventPage(data, nextCursor);
+        } finally {
+            eventsLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the number of hours each room is booked for on a day.
+     * @param day The day, formatted as dd/MM/yyyy.
+     * @return The hours booked, keyed by room number, in increasing order of room number.
+     * @throws InvalidEventFieldsException If the day is not in the right format.
+     */
+    public Map<Integer, Double> getRoomBookedHours(String day) throws InvalidEventFieldsException {
+        eventsLock.readLock().lock();
+        try {
+            Map<Integer, Double> hours = new LinkedHashMap<>();
+            for (int roomNum : eventHandler.getRoomNumbers())
+                hours.put(roomNum, eventHandler.getRoomBookedHours(roomNum, day));
+            return hours;
+        } finally {
+            eventsLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Getter for data from the events with the most attendees, along with the share of their seats that are taken.
+     * @param n The largest number of events to get.
+     * @return Event data of up to n events, the most attendees first, as a List of Maps, with their keys and values as
+     * Strings. Each map also has the key "fillRatio".
+     * @throws EventNotFoundException If the event is not found.
+     */
+    public List<Map<String, String>> getMostSubscribedEventData(int n) throws EventNotFoundException {
+        eventsLock.readLock().lock();
+        try {
+            List<Map<String, String>> data = new ArrayList<>();
+            for (int id : eventHandler.getMostSubscribedEvents(n)) {
+                Map<String, String> info = new HashMap<>(eventHandler.getEventInfo(id));
+                info.put("fillRatio", String.format("%.2f", eventHandler.getFillRatio(id)));
+                data.add(info);
+            }
+            return data;
+        } finally {
+            eventsLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the share of all seats, over every event, that are taken.
+     * @return The total number of attendees divided by the total capacity.
+     */
+    public double getOverallFillRatio() {
+        return eventHandler.getOverallFillRatio();
+    }
+
+    /**
+     * Writes the events of a user, a speaker, a room or the whole conference to a Writer as an iCalendar (RFC 5545)
+     * calendar. Events are written one at a time, so the calendar is never built up in memory.
+     * @param scope The scope: "user", "speaker", "room" or "all".
+     * @param details Details of the scope (ie. the username for "user" and "speaker", the room number for "room").
+     * @param out The Writer to write the calendar to.
+     * @throws IOException If the calendar cannot be written.
+     * @throws InvalidEventFieldsException If the scope or its details are invalid.
+     * @throws RoomNotFoundException If the room does not exist.
+     */
+    public void exportCalendar(String scope, String details, Writer out) throws IOException,
+            InvalidEventFieldsException, RoomNotFoundException {
+        eventsLock.readLock().lock();
+        try {
+            eventHandler.exportCalendar(scope, details, out);
+        } finally {
+            eventsLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the usernames of everyone signed up for at least one event.
+     * @return The usernames, as a Set.
+     */
+    public Set<String> getAttendeeUsernames() {
+        return eventHandler.getAttendeeUsernames();
+    }
+
+    /**
+     * Imports rooms and events from a CSV, one per row:
+     * <pre>
+     * room,&lt;roomNum&gt;,&lt;capacity&gt;,&lt;roomType&gt;
+     * event,&lt;speakers&gt;,&lt;name&gt;,&lt;yyyy-MM-dd HH:mm&gt;,&lt;duration&gt;,&lt;capacity&gt;,&lt;vip&gt;,&lt;roomNum&gt;,&lt;requirements&gt;
+     * </pre>
+     * Fields holding a list (ie. several speakers or requirements) are separated by commas and quoted. A header row
+     * starting with "type" and blank rows are skipped. Rooms are added as they are read. Events are first checked on
+     * their own, in parallel, then added in the order they appear so that an event only clashes with those above it.
+     * Rows with an error are left out; the rest of the CSV is still imported.
+     * @param createdByUser The username of the organizer importing the program.
+     * @param csv The CSV to read.
+     * @return The errors, one per bad row, as "line &lt;number&gt;: &lt;error&gt;". Empty if every row was imported.
+     * @throws IOException If the CSV cannot be read.
+     * @throws UserNotFoundException If the organizer is not found.
+     */
+    public List<String> importCsv(String createdByUser, Reader csv) throws IOException, UserNotFoundException {
+        userHandler.getOrganizer(createdByUser);
+        SortedMap<Integer, String> errors = new TreeMap<>();
+        List<Integer> eventLines = new ArrayList<>();
+        List<List<String>> eventData = new ArrayList<>();
+        List<Set<String>> eventRequirements = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(csv);
+        String line;
+        int lineNum = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNum++;
+            List<String> row = splitCsvRow(line);
+            String type = row.get(0).trim().toLowerCase();
+            if (type.isEmpty() || (lineNum == 1 && type.equals("type")))
+                continue;
+            try {
+                if (type.equals("room") && row.size() == 4) {
+                    addRoom(Integer.parseInt(row.get(1).trim()), Integer.parseInt(row.get(2).trim()),
+                            row.get(3).trim());
+                } else if (type.equals("event") && row.size() == 9) {
+                    List<String> data = new ArrayList<>(row.subList(1, 8));
+                    data.set(0, String.join(",", splitList(row.get(1), false)));
+                    eventLines.add(lineNum);
+                    eventData.add(data);
+                    eventRequirements.add(new HashSet<>(splitList(row.get(8), true)));
+                } else
+                    errors.put(lineNum, "unknown row type or wrong number of fields");
+            } catch (NumberFormatException e) {
+                errors.put(lineNum, "must be a number");
+            } catch (InvalidEventFieldsException e) {
+                errors.put(lineNum, e.toString());
+            }
+        }
+        eventsLock.writeLock().lock();
+        try {
+            String[] checks = new String[eventData.size()];
+            IntStream.range(0, eventData.size()).parallel().forEach(i ->
+                    checks[i] = checkImportedEvent(eventData.get(i), eventRequirements.get(i)));
+            for (int i = 0; i < eventData.size(); i++) {
+                if (checks[i] != null) {
+                    errors.put(eventLines.get(i), checks[i]);
+                    continue;
+                }
+                try {
+                    int eventId = eventHandler.createEvent(eventData.get(i), eventRequirements.get(i));
+                    for (String speaker : eventData.get(i).get(0).split(","))
+                        if (!"".equals(speaker))
+                            userHandler.createEvent(createdByUser, eventId, speaker);
+                } catch (InvalidEventFieldsException | RoomNotFoundException e) {
+                    errors.put(eventLines.get(i), e.toString());
+                }
+            }
+        } finally {
+            eventsLock.writeLock().unlock();
+        }
+        List<String> report = new ArrayList<>();
+        for (Map.Entry<Integer, String> error : errors.entrySet())
+            report.add("line " + error.getKey() + ": " + error.getValue());
+        return report;
+    }
+
+    /**
+     * Checks an imported event against everything but the rest of the schedule, ie. its fields, its room and whether
+     * its speakers exist.
+     * @param data The data of the event, as for createEvent.
+     * @param requirements The requirements of the event.
+     * @return The error, or null if the event passed every check.
+     */
+    private String checkImportedEvent(List<String> data, Set<String> requirements) {
+        for (String speaker : data.get(0).split(","))
+            if (!"".equals(speaker)) {
+                try {
+                    userHandler.getSpeaker(speaker);
+                } catch (UserNotFoundException e) {
+                    return "speaker " + speaker + " not found";
+                }
+            }
+        try {
+            eventHandler.checkImportedEvent(data, requirements);
+            return null;
+        } catch (InvalidEventFieldsException | RoomNotFoundException e) {
+            return e.toString();
+        }
+    }
+
+    /**
+     * Splits a CSV row into its fields. Fields may be quoted, in which case they may hold commas, and a quote inside
+     * a quoted field is written twice. Unquoted fields are trimmed.
+     * @param line The row.
+     * @return The fields of the row, in order. There is always at least one.
+     */
+    private List<String> splitCsvRow(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"')
+                    field.append(c);
+                else if (i + 1 < line.length() && line.charAt(i + 1) == '"')
+                    field.append(line.charAt(++i));
+                else
+                    quoted = false;
+            } else if (c == '"')
+                quoted = true;
+            else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else
+                field.append(c);
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+
+    /**
+     * Splits a field of an imported event holding a list, ie. its speakers or requirements.
+     * @param field The items, separated by commas.
+     * @param lowerCase True to put the items in lower case, the same way the menu reads requirements.
+     * @return The items that are not blank, trimmed.
+     */
+    private List<String> splitList(String field, boolean lowerCase) {
+        List<String> items = new ArrayList<>();
+        for (String item : field.split(","))
+            if (!item.trim().isEmpty())
+                items.add(lowerCase ? item.trim().toLowerCase() : item.trim());
+        return items;
     }
 
     /**
@@ -273,11 +1090,16 @@ public class EventSystem {
      * @throws EventNotFoundException If the event is not found.
      */
     public List<String> getAllEventNameList(List<Integer> createdEvents) throws EventNotFoundException{
-        List<String> out = new ArrayList<>();
-        for (int id : createdEvents){
-            out.add(eventHandler.getEventInfo(id).get("name"));
+        eventsLock.readLock().lock();
+        try {
+            List<String> out = new ArrayList<>();
+            for (int id : createdEvents){
+                out.add(eventHandler.getEventView(id).getName());
+            }
+            return out;
+        } finally {
+            eventsLock.readLock().unlock();
         }
-        return out;
     }
 
     /**
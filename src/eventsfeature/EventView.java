@@ -0,0 +1,187 @@
+package eventsfeature;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * An immutable snapshot of the information about an Event, as shown to users. A view is built once and reused until
+ * the Event changes, so listing many Events does not format every field again. An occurrence of a recurring series
+ * that has not become an Event yet can be viewed too; its view has the id -1.
+ * @author Kevin Cecco, Daniel Chan, William Wang
+ */
+public class EventView {
+
+    private final int eventId;
+    private final String name;
+    private final LocalDateTime startTime;
+    private final int duration;
+    private final String roomCode;
+    private final String speakerNames;
+    private final int numAttendees;
+    private final boolean isFull;
+    private final Set<String> requirements;
+    private final boolean isVIP;
+    private final Map<String, String> info;
+    private final int version;
+
+    /**
+     * Constructs a view of an Event.
+     * @param event The Event to take a snapshot of.
+     * @param roomCode The code of the room the Event is held in.
+     * @param version The version of the Event, read before the snapshot is taken.
+     */
+    protected EventView(Event event, String roomCode, int version) {
+        this(event.getUid(), event.getName(), event.getStartTime(), event.getDuration(), roomCode,
+                event.getSpeakerNames(), event.numAttendees(), event.isFull(), event.getRequirements(),
+                event.getVIP().equals("true"), version);
+    }
+
+    /**
+     * Constructs a view of an occurrence of a series that has not become an Event yet.
+     * @param series The series.
+     * @param startTime The start time of the occurrence.
+     * @param roomCode The code of the room the series is held in.
+     */
+    protected EventView(EventSeries series, LocalDateTime startTime, String roomCode) {
+        this(-1, series.getName(), startTime, series.getDuration(), roomCode, series.getSpeakerNames(), 0,
+                series.getCapacity() <= 0, series.getRequirements(), series.getVIP(), -1);
+    }
+
+    /**
+     * Constructs a view from the value of each field.
+     * @param eventId The unique ID of the Event, or -1 for an occurrence that is not an Event yet.
+     * @param name The name of the Event.
+     * @param startTime The start time of the Event.
+     * @param duration The duration of the Event, in hours.
+     * @param roomCode The code of the room the Event is held in.
+     * @param speakerNames The usernames of the Speakers of the Event separated by commas.
+     * @param numAttendees The number of attendees signed up for the Event.
+     * @param isFull Whether the Event is full.
+     * @param requirements The requirements of the Event.
+     * @param isVIP Whether the Event is VIP only.
+     * @param version The version of the Event, read before the snapshot is taken.
+     */
+    private EventView(int eventId, String name, LocalDateTime startTime, int duration, String roomCode,
+                      String speakerNames, int numAttendees, boolean isFull, Set<String> requirements, boolean isVIP,
+                      int version) {
+        this.version = version;
+        this.eventId = eventId;
+        this.name = name;
+        this.startTime = startTime;
+        this.duration = duration;
+        this.roomCode = roomCode;
+        this.speakerNames = speakerNames;
+        this.numAttendees = numAttendees;
+        this.isFull = isFull;
+        this.requirements = Collections.unmodifiableSet(requirements);
+        this.isVIP = isVIP;
+        Map<String, String> info = new HashMap<>();
+        info.put("name", name);
+        info.put("time", startTime.toString());
+        info.put("roomNum", roomCode);
+        info.put("speakers", speakerNames);
+        info.put("numAttendees", Integer.toString(numAttendees));
+        info.put("isFull", Boolean.toString(isFull));
+        info.put("eventId", Integer.toString(eventId));
+        info.put("requirements", requirements.toString());
+        info.put("isVIP", Boolean.toString(isVIP));
+        this.info = Collections.unmodifiableMap(info);
+    }
+
+    /**
+     * Getter for the unique ID of the Event.
+     * @return The unique ID of the Event, or -1 for an occurrence of a series that is not an Event yet.
+     */
+    public int getEventId() {
+        return eventId;
+    }
+
+    /**
+     * Getter for the name of the Event.
+     * @return The name of the Event.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Getter for the start time of the Event.
+     * @return The start time of the Event.
+     */
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Getter for the duration of the Event.
+     * @return The duration of the Event, in hours.
+     */
+    public int getDuration() {
+        return duration;
+    }
+
+    /**
+     * Getter for the code of the room the Event is held in.
+     * @return The room code (room type abbreviation + room number).
+     */
+    public String getRoomCode() {
+        return roomCode;
+    }
+
+    /**
+     * Getter for the usernames of the Speakers of the Event.
+     * @return The usernames of the Speakers separated by commas.
+     */
+    public String getSpeakerNames() {
+        return speakerNames;
+    }
+
+    /**
+     * Getter for the number of attendees signed up for the Event.
+     * @return The number of attendees.
+     */
+    public int getNumAttendees() {
+        return numAttendees;
+    }
+
+    /**
+     * Returns if the Event is full.
+     * @return True if the Event is full, false otherwise.
+     */
+    public boolean isFull() {
+        return isFull;
+    }
+
+    /**
+     * Getter for the requirements of the Event.
+     * @return The requirements of the Event, as an unmodifiable Set.
+     */
+    public Set<String> getRequirements() {
+        return requirements;
+    }
+
+    /**
+     * Returns if the Event is VIP only.
+     * @return True if the Event is VIP only, false otherwise.
+     */
+    public boolean isVIP() {
+        return isVIP;
+    }
+
+    /**
+     * Getter for the version of the Event this view was built from.
+     * @return The version of the Event.
+     */
+    protected int getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the information of the Event as a map of Strings, keyed by field name.
+     * @return An unmodifiable map of the information of the Event.
+     */
+    public Map<String, String> toMap() {
+        return info;
+    }
+
+}
@@ -0,0 +1,60 @@
+package eventsfeature;
+
+import java.util.*;
+
+/**
+ * Interns room features, giving each one a bit so that a set of features can be stored and compared as a bitmask.
+ * @author Kevin Cecco, Daniel Chan, William Wang
+ */
+public class FeatureRegistry {
+
+    // bit 63 is never handed out, so UNKNOWN_FEATURES can never be a subset of a room's features
+    private static final int MAX_FEATURES = 63;
+    protected static final long UNKNOWN_FEATURES = -1L;
+
+    private final Map<String, Integer> featureBits;
+
+    /**
+     * Constructs an empty FeatureRegistry.
+     */
+    protected FeatureRegistry() {
+        featureBits = new HashMap<>();
+    }
+
+    /**
+     * Gets the bitmask of a set of features, registering any feature that has not been seen before.
+     * @param features The features, as a Set of Strings.
+     * @return The bitmask of the features.
+     */
+    protected long intern(Set<String> features) {
+        long mask = 0L;
+        for (String feature : features) {
+            Integer bit = featureBits.get(feature);
+            if (bit == null) {
+                if (featureBits.size() == MAX_FEATURES)
+                    throw new InvalidEventFieldsException("too many room features");
+                bit = featureBits.size();
+                featureBits.put(feature, bit);
+            }
+            mask |= 1L << bit;
+        }
+        return mask;
+    }
+
+    /**
+     * Gets the bitmask of a set of required features, without registering anything.
+     * @param features The features, as a Set of Strings.
+     * @return The bitmask of the features, or UNKNOWN_FEATURES if a feature is not offered by any room.
+     */
+    protected long getMask(Set<String> features) {
+        long mask = 0L;
+        for (String feature : features) {
+            Integer bit = featureBits.get(feature);
+            if (bit == null)
+                return UNKNOWN_FEATURES;
+            mask |= 1L << bit;
+        }
+        return mask;
+    }
+
+}
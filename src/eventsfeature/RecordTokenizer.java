@@ -0,0 +1,139 @@
+package eventsfeature;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Reads the %%-delimited records of a saved file, one record per line, field by field. The input is walked through
+ * character by character instead of being split with regular expressions, and numbers and times are parsed straight
+ * from it, so loading a large file does not create a String for every line and every field.
+ * @author Kevin Cecco, Daniel Chan, William Wang
+ */
+public class RecordTokenizer {
+
+    private static final String FIELD_DELIMITER = "%%";
+    private static final char LIST_DELIMITER = ',';
+
+    private final String input;
+    private int nextLine; // start of the line after the current record
+    private int recordEnd; // end of the current record, line break left out
+    private int nextField; // start of the next field of the current record
+    private int fieldStart; // start of the field last read
+    private int fieldEnd; // end of the field last read
+
+    /**
+     * Constructs a RecordTokenizer.
+     * @param input The contents of the file, or null if there is none.
+     */
+    protected RecordTokenizer(String input) {
+        this.input = input == null ? "" : input;
+        this.nextLine = 0;
+        this.recordEnd = 0;
+        this.nextField = 1;
+    }
+
+    /**
+     * Moves on to the next record, skipping blank lines.
+     * @return True if there is another record, false if the end of the input was reached.
+     */
+    protected boolean nextRecord() {
+        while (nextLine < input.length()) {
+            int start = nextLine;
+            int end = input.indexOf('\n', start);
+            if (end == -1)
+                end = input.length();
+            nextLine = end + 1;
+            if (end > start && input.charAt(end - 1) == '\r')
+                end--;
+            if (end > start) {
+                nextField = start;
+                recordEnd = end;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads the next field of the current record.
+     * @return The field, or an empty String if the record has no fields left.
+     */
+    protected String nextField() {
+        return skipField() ? input.substring(fieldStart, fieldEnd) : "";
+    }
+
+    /**
+     * Reads the next field of the current record as an int.
+     * @return The field as an int.
+     * @throws NumberFormatException If the field is not an int, or the record has no fields left.
+     */
+    protected int nextInt() {
+        if (!skipField())
+            throw new NumberFormatException("missing field");
+        return Integer.parseInt(input, fieldStart, fieldEnd, 10);
+    }
+
+    /**
+     * Reads the next field of the current record as a time, written as by LocalDateTime.toString.
+     * @return The field as a LocalDateTime.
+     * @throws java.time.DateTimeException If the field is not a valid time, or the record has no fields left.
+     */
+    protected LocalDateTime nextDateTime() {
+        if (!skipField())
+            throw new java.time.format.DateTimeParseException("missing field", "", 0);
+        int start = fieldStart;
+        if (fieldEnd - start != 16 || input.charAt(start + 4) != '-' || input.charAt(start + 7) != '-'
+                || input.charAt(start + 10) != 'T' || input.charAt(start + 13) != ':') // ie. seconds were written
+            return LocalDateTime.parse(input.substring(start, fieldEnd));
+        return LocalDateTime.of(parseDigits(start, 4), parseDigits(start + 5, 2), parseDigits(start + 8, 2),
+                parseDigits(start + 11, 2), parseDigits(start + 14, 2));
+    }
+
+    /**
+     * Reads the next field of the current record as a list of items separated by commas.
+     * @return The items that are not empty, in order. Empty if the record has no fields left.
+     */
+    protected List<String> nextList() {
+        if (!skipField())
+            return Collections.emptyList();
+        List<String> items = new ArrayList<>();
+        int start = fieldStart;
+        while (start < fieldEnd) {
+            int end = input.indexOf(LIST_DELIMITER, start);
+            if (end == -1 || end > fieldEnd)
+                end = fieldEnd;
+            if (end > start)
+                items.add(input.substring(start, end));
+            start = end + 1;
+        }
+        return items;
+    }
+
+    /**
+     * Finds the bounds of the next field of the current record and moves past it.
+     * @return True if there was a field, false if the record has no fields left.
+     */
+    private boolean skipField() {
+        if (nextField > recordEnd)
+            return false;
+        int end = input.indexOf(FIELD_DELIMITER, nextField);
+        if (end == -1 || end > recordEnd)
+            end = recordEnd;
+        fieldStart = nextField;
+        fieldEnd = end;
+        nextField = end + FIELD_DELIMITER.length();
+        return true;
+    }
+
+    /**
+     * Parses a run of digits of the input.
+     * @param start The index of the first digit.
+     * @param length The number of digits.
+     * @return The digits as an int.
+     * @throws NumberFormatException If one of the characters is not a digit.
+     */
+    private int parseDigits(int start, int length) {
+        return Integer.parseInt(input, start, start + length, 10);
+    }
+
+}
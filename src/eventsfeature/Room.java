@@ -1,5 +1,6 @@
 package eventsfeature;
 
+import java.time.LocalDateTime;
 import java.util.*;
 
 /** An entity class representing a Room (abstract).
@@ -11,18 +12,23 @@ public abstract class Room {
     private final int capacity;
     private final Set<Integer> eventIds;
     private final Set<String> features;
+    private final long featureMask;
+    private final TimeSlotIndex schedule;
 
     /**
      * Constructs an instance of Room.
      * @param roomNum  The unique room number associated with this Room, as an int.
      * @param capacity The capacity of this Room, as an int.
      * @param features The features of the room, as a Set.
+     * @param featureRegistry The registry used to encode the features as a bitmask.
      */
-    protected Room(int roomNum, int capacity, Set<String> features) {
+    protected Room(int roomNum, int capacity, Set<String> features, FeatureRegistry featureRegistry) {
         this.roomNum = roomNum;
         this.capacity = capacity;
         this.eventIds = new HashSet<>(); // list of event ids as ints
         this.features = features; // list of features. this is determined by subclasses
+        this.featureMask = featureRegistry.intern(features);
+        this.schedule = new TimeSlotIndex(); // time slots of the events in this room, ordered by start time
     }
 
     /**
@@ -33,13 +39,20 @@ public abstract class Room {
      */
     protected abstract String getRoomCode();
 
+    /**
+     * Gets the largest number of attendees an event held in this room can have. Since different types of rooms treat
+     * their capacity differently, this method is made abstract.
+     * @return The largest event capacity this room can hold, as an int.
+     */
+    protected abstract int getEventCapacity();
+
     /**
      * A method to check if the given requirements are possible in this room. Since all rooms are different,
      * this method is made abstract. All non-abstract subclasses of room should implement this method.
-     * @param requirements Given requirements.
+     * @param requirements Given requirements, as a bitmask from the FeatureRegistry.
      * @return Whether or not the requirements are present.
      */
-    protected abstract boolean checkRequirements(Set<String> requirements, int capacity);
+    protected abstract boolean checkRequirements(long requirements, int capacity);
 
     /**
      * Gets the capacity of the room.
@@ -73,6 +86,15 @@ public abstract class Room {
         return features;
     }
 
+    /**
+     * Checks if this Room has all of the given features.
+     * @param requirements The required features, as a bitmask from the FeatureRegistry.
+     * @return True if every required feature is in this Room, false otherwise.
+     */
+    protected boolean hasFeatures(long requirements) {
+        return (featureMask & requirements) == requirements;
+    }
+
     /**
      * Adds an Event to this Room.
      * @param eventId Event id of the Event added to this Room.
@@ -86,12 +108,56 @@ public abstract class Room {
         }
     }
 
+    /**
+     * Adds an Event to this Room, along with its time slot.
+     * @param eventId Event id of the Event added to this Room.
+     * @param startTime The start time of the Event.
+     * @param duration The duration of the Event, in hours.
+     */
+    protected void addEventId(int eventId, LocalDateTime startTime, int duration) {
+        addEventId(eventId);
+        schedule.add(eventId, startTime, duration);
+    }
+
+    /**
+     * Updates the time slot of an Event in this Room.
+     * @param eventId Event id of the Event in this Room.
+     * @param startTime The new start time of the Event.
+     * @param duration The new duration of the Event, in hours.
+     */
+    protected void updateEventTime(int eventId, LocalDateTime startTime, int duration) {
+        if (eventIds.contains(eventId))
+            schedule.add(eventId, startTime, duration);
+    }
+
     /**
      * Removes an Event from this Room.
      * @param eventId Event id of the Event removed from this Room.
      */
     protected void removeEventId(int eventId) {
         eventIds.remove(eventId);
+        schedule.remove(eventId);
+    }
+
+    /**
+     * Checks if a time period overlaps any Event in this Room.
+     * @param time Time the time period begins at, as a LocalDateTime.
+     * @param duration Duration the time period lasts for, in hours as an int.
+     * @param ignoredEventId The id of an Event in this Room to leave out of the check, or -1.
+     * @return True if there is a time conflict, false otherwise.
+     */
+    protected boolean hasTimeConflict(LocalDateTime time, int duration, int ignoredEventId) {
+        return schedule.hasTimeConflict(time, duration, ignoredEventId);
+    }
+
+    /**
+     * Gets the time at which every Event in this Room overlapping a time period is over.
+     * @param time Time the time period begins at, as a LocalDateTime.
+     * @param duration Duration the time period lasts for, in hours as an int.
+     * @return The latest end time of the overlapping Events, or null if there is no time conflict.
+     */
+    protected LocalDateTime getConflictEnd(LocalDateTime time, int duration) {
+        return schedule.getConflictEnd(time, duration);
     }
 
     /**
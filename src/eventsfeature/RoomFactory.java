@@ -9,6 +9,15 @@ import java.util.Arrays;
 public class RoomFactory {
 
     private static final String[] ROOM_TYPES = {"auditorium", "convention", "classroom"};
+    private final FeatureRegistry featureRegistry;
+
+    /**
+     * Constructs an instance of RoomFactory.
+     * @param featureRegistry The registry used to encode the features of the rooms this factory makes.
+     */
+    protected RoomFactory(FeatureRegistry featureRegistry) {
+        this.featureRegistry = featureRegistry;
+    }
 
     /**
      * The method to be called to generate a room object.
@@ -42,7 +51,7 @@ public class RoomFactory {
      * @return An instance of AuditoriumRoom, as a Room.
      */
     private Room getAuditoriumRoom(int roomNum, int capacity) {
-        return new AuditoriumRoom(roomNum, capacity);
+        return new AuditoriumRoom(roomNum, capacity, featureRegistry);
     }
 
     /**
@@ -52,7 +61,7 @@ public class RoomFactory {
      * @return An instance of ConventionCentreRoom, as a Room.
      */
     private Room getConventionRoom(int roomNum, int capacity) {
-        return new ConventionCentreRoom(roomNum, capacity);
+        return new ConventionCentreRoom(roomNum, capacity, featureRegistry);
     }
 
     /**
@@ -62,7 +71,7 @@ public class RoomFactory {
      * @return An instance of Classroom, as a Room.
      */
     private Room getClassroom(int roomNum, int capacity) {
-        return new Classroom(roomNum, capacity);
+        return new Classroom(roomNum, capacity, featureRegistry);
     }
 
 }
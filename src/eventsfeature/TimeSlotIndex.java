@@ -0,0 +1,240 @@
+package eventsfeature;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * A time-ordered index of Event time slots, keyed on start time. Used to check whether a new time slot overlaps any
+ * indexed Event without scanning every Event.
+ * @author Kevin Cecco, Daniel Chan, William Wang
+ */
+public class TimeSlotIndex {
+
+    private final TreeMap<LocalDateTime, Set<Integer>> eventsByStart;
+    private final Map<Integer, LocalDateTime> startTimes;
+    private final Map<Integer, Integer> durations;
+    private final TreeMap<Integer, Integer> durationCounts; // duration -> number of events with that duration
+
+    /**
+     * Constructs an empty TimeSlotIndex.
+     */
+    protected TimeSlotIndex() {
+        eventsByStart = new TreeMap<>();
+        startTimes = new HashMap<>();
+        durations = new HashMap<>();
+        durationCounts = new TreeMap<>();
+    }
+
+    /**
+     * Adds an Event's time slot to the index, replacing any slot previously indexed for the same Event.
+     * @param eventId The id of the Event.
+     * @param startTime The start time of the Event.
+     * @param duration The duration of the Event, in hours.
+     */
+    protected void add(int eventId, LocalDateTime startTime, int duration) {
+        remove(eventId);
+        eventsByStart.computeIfAbsent(startTime, k -> new HashSet<>()).add(eventId);
+        startTimes.put(eventId, startTime);
+        durations.put(eventId, duration);
+        durationCounts.merge(duration, 1, Integer::sum);
+    }
+
+    /**
+     * Removes an Event's time slot from the index, if it is indexed.
+     * @param eventId The id of the Event.
+     */
+    protected void remove(int eventId) {
+        LocalDateTime startTime = startTimes.remove(eventId);
+        if (startTime == null)
+            return;
+        Set<Integer> ids = eventsByStart.get(startTime);
+        ids.remove(eventId);
+        if (ids.isEmpty())
+            eventsByStart.remove(startTime);
+        int duration = durations.remove(eventId);
+        if (durationCounts.merge(duration, -1, Integer::sum) == 0)
+            durationCounts.remove(duration);
+    }
+
+    /**
+     * Checks if this index contains the given Event.
+     * @param eventId The id of the Event.
+     * @return True if the Event is indexed, false otherwise.
+     */
+    protected boolean contains(int eventId) {
+        return startTimes.containsKey(eventId);
+    }
+
+    /**
+     * Gets the ids of the indexed Events starting within a time range, in chronological order.
+     * @param from The start of the range.
+     * @param fromInclusive Whether Events starting exactly at from are included.
+     * @param to The end of the range.
+     * @param toInclusive Whether Events starting exactly at to are included.
+     * @return The ids of the Events starting in the range, as a List of ints.
+     */
+    protected List<Integer> getEventIdsBetween(LocalDateTime from, boolean fromInclusive, LocalDateTime to,
+                                               boolean toInclusive) {
+        List<Integer> ids = new ArrayList<>();
+        if (from.isAfter(to))
+            return ids;
+        for (Set<Integer> slot : eventsByStart.subMap(from, fromInclusive, to, toInclusive).values())
+            ids.addAll(slot);
+        return ids;
+    }
+
+    /**
+     * Gets the number of Events in this index.
+     * @return The number of indexed Events.
+     */
+    protected int size() {
+        return startTimes.size();
+    }
+
+    /**
+     * Gets the ids of every indexed Event, in no particular order.
+     * @return The ids of the indexed Events, as an unmodifiable Set.
+     */
+    protected Set<Integer> getEventIds() {
+        return Collections.unmodifiableSet(startTimes.keySet());
+    }
+
+    /**
+     * Lazily streams the ids of the indexed Events starting within a time range, in chronological order. Events
+     * starting at the same time are ordered by id. Either end of the range may be left open.
+     * @param from The earliest start time, inclusive, or null.
+     * @param to The latest start time, exclusive, or null.
+     * @return The ids of the Events starting in the range, as a Stream of ints.
+     */
+    protected Stream<Integer> streamEventIdsBetween(LocalDateTime from, LocalDateTime to) {
+        return getSlotsBetween(from, to).values().stream().flatMap(slot -> slot.stream().sorted());
+    }
+
+    /**
+     * Counts the indexed Events starting within a time range, stopping once the count reaches a limit. Either end of
+     * the range may be left open.
+     * @param from The earliest start time, inclusive, or null.
+     * @param to The latest start time, exclusive, or null.
+     * @param limit The count at which to stop counting.
+     * @return The number of Events starting in the range, or limit if there are at least that many.
+     */
+    protected int countEventIdsBetween(LocalDateTime from, LocalDateTime to, int limit) {
+        int count = 0;
+        for (Set<Integer> slot : getSlotsBetween(from, to).values()) {
+            count += slot.size();
+            if (count >= limit)
+                return limit;
+        }
+        return count;
+    }
+
+    /**
+     * Gets the part of the index starting within a time range. Either end of the range may be left open.
+     * @param from The earliest start time, inclusive, or null.
+     * @param to The latest start time, exclusive, or null.
+     * @return The ids of the Events, keyed by start time.
+     */
+    private NavigableMap<LocalDateTime, Set<Integer>> getSlotsBetween(LocalDateTime from, LocalDateTime to) {
+        NavigableMap<LocalDateTime, Set<Integer>> slots = eventsByStart;
+        if (from != null && to != null && !from.isBefore(to))
+            return Collections.emptyNavigableMap();
+        if (from != null)
+            slots = slots.tailMap(from, true);
+        if (to != null)
+            slots = slots.headMap(to, false);
+        return slots;
+    }
+
+    /**
+     * Checks if a time period overlaps any indexed Event. Only Events starting less than the longest indexed duration
+     * before the time period can overlap it, so only that window of the index is visited.
+     * @param time Time the time period begins at, as a LocalDateTime.
+     * @param duration Duration the time period lasts for, in hours as an int.
+     * @param ignoredEventId The id of an Event to leave out of the check (ie. the Event being rescheduled), or -1.
+     * @return True if there is a time conflict, false otherwise.
+     */
+    protected boolean hasTimeConflict(LocalDateTime time, int duration, int ignoredEventId) {
+        if (eventsByStart.isEmpty())
+            return false;
+        LocalDateTime from = time.minusHours(Math.max(durationCounts.lastKey(), 0));
+        LocalDateTime to = time.plusHours(Math.max(duration, 0));
+        for (Map.Entry<LocalDateTime, Set<Integer>> slot :
+                eventsByStart.subMap(from, true, to, true).entrySet()) {
+            for (int id : slot.getValue()) {
+                if (id != ignoredEventId && overlaps(slot.getKey(), durations.get(id), time, duration))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the time at which every indexed Event overlapping a time period is over. No time period of the same length
+     * starting before then can be free of those Events, so a search for a free time slot can skip ahead to it.
+     * @param time Time the time period begins at, as a LocalDateTime.
+     * @param duration Duration the time period lasts for, in hours as an int.
+     * @return The latest end time of the overlapping Events, or null if there is no time conflict.
+     */
+    protected LocalDateTime getConflictEnd(LocalDateTime time, int duration) {
+        if (eventsByStart.isEmpty())
+            return null;
+        LocalDateTime conflictEnd = null;
+        LocalDateTime from = time.minusHours(Math.max(durationCounts.lastKey(), 0));
+        LocalDateTime to = time.plusHours(Math.max(duration, 0));
+        for (Map.Entry<LocalDateTime, Set<Integer>> slot :
+                eventsByStart.subMap(from, true, to, true).entrySet()) {
+            for (int id : slot.getValue()) {
+                LocalDateTime end = slot.getKey().plusHours(durations.get(id));
+                if (overlaps(slot.getKey(), durations.get(id), time, duration) &&
+                        (conflictEnd == null || end.isAfter(conflictEnd)))
+                    conflictEnd = end;
+            }
+        }
+        return conflictEnd;
+    }
+
+    /**
+     * Gets the free time slots within a time period, ie. the gaps between the indexed Events that overlap it.
+     * @param from The start of the time period.
+     * @param to The end of the time period.
+     * @return The end of each free time slot, keyed by its start, in chronological order.
+     */
+    protected SortedMap<LocalDateTime, LocalDateTime> getFreeSlots(LocalDateTime from, LocalDateTime to) {
+        SortedMap<LocalDateTime, LocalDateTime> free = new TreeMap<>();
+        if (!from.isBefore(to))
+            return free;
+        LocalDateTime freeFrom = from;
+        if (!eventsByStart.isEmpty()) {
+            LocalDateTime earliest = from.minusHours(Math.max(durationCounts.lastKey(), 0));
+            for (Map.Entry<LocalDateTime, Set<Integer>> slot :
+                    eventsByStart.subMap(earliest, true, to, false).entrySet()) {
+                for (int id : slot.getValue()) {
+                    LocalDateTime end = slot.getKey().plusHours(durations.get(id));
+                    if (slot.getKey().isAfter(freeFrom))
+                        free.put(freeFrom, slot.getKey());
+                    if (end.isAfter(freeFrom))
+                        freeFrom = end;
+                }
+            }
+        }
+        if (freeFrom.isBefore(to))
+            free.put(freeFrom, to);
+        return free;
+    }
+
+    /**
+     * Checks if a time period overlaps an Event's time slot. Mirrors Event.hasTimeConflict.
+     * @param startTime The start time of the Event.
+     * @param eventDuration The duration of the Event, in hours.
+     * @param time Time the time period begins at.
+     * @param duration Duration the time period lasts for, in hours.
+     * @return True if there is a time conflict, false otherwise.
+     */
+    private boolean overlaps(LocalDateTime startTime, int eventDuration, LocalDateTime time, int duration) {
+        if (startTime.isEqual(time))
+            return true;
+        return time.isAfter(startTime.minusHours(duration)) && time.isBefore(startTime.plusHours(eventDuration));
+    }
+
+}
@@ -32,6 +32,30 @@ public class Persistence {
         }
     }
 
+    /**
+     * Opens a file at the given file path for writing, so that information can be written to it bit by bit. The file
+     * and its folder are created if they do not exist, and the file is cleared if it does.
+     * @param filePath The path to the file where we store the information.
+     * @return A Writer to the file, which the caller must close.
+     * @throws IOException If the file cannot be opened.
+     */
+    public Writer getWriterToPath(String filePath) throws IOException {
+        File file = new File(filePath);
+        if (file.getParentFile() != null)
+            file.getParentFile().mkdirs();
+        return new BufferedWriter(new FileWriter(file.getAbsoluteFile(), false));
+    }
+
+    /**
+     * Opens a file at the given file path for reading, so that it can be read bit by bit instead of all at once.
+     * @param filePath The path to the file to read.
+     * @return A Reader of the file, which the caller must close.
+     * @throws IOException If the file does not exist or cannot be opened.
+     */
+    public Reader getReaderFromPath(String filePath) throws IOException {
+        return new BufferedReader(new FileReader(filePath));
+    }
+
     /**
      * Reads in information from a file at the given file path.
      * @param filePath The path to the file where we store the information.
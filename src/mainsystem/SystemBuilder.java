@@ -10,6 +10,12 @@ import usersfeature.UserHandler;
 import usersfeature.UserSystem;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 /**
  * A builder class responsible for building the Controllers .
@@ -30,8 +36,11 @@ public class SystemBuilder {
     private static final String userPath = "filedata" +  File.separator + "userstext.txt";
     private static final String eventsPath = "filedata" +  File.separator + "eventstext.txt";
     private static final String messagesPath = "filedata" + File.separator + "messagestext.txt";
+    private static final String messageIndexPath = "filedata" + File.separator + "messageindex.txt";
     private static final String roomsPath = "filedata" + File.separator + "roomstext.txt";
     private static final String requestsPath = "filedata" + File.separator + "requeststext.txt";
+    private static final String seriesPath = "filedata" + File.separator + "seriestext.txt";
+    private static final String calendarsPath = "filedata" + File.separator + "calendars";
 
     /**
      * Responsible for instantiating all relevant Use Cases, Controllers etc.
@@ -44,11 +53,13 @@ public class SystemBuilder {
         this.userHandler = new UserHandler(persistence.readStringFromPath(userPath));
 
         this.messageSystem = new MessageSystem(persistence.readStringFromPath(messagesPath),
+                persistence.readStringFromPath(messageIndexPath),
                 userHandler,
                 eventHandler,
                 messageHandler);
         this.eventSystem = new EventSystem(persistence.readStringFromPath(eventsPath),
                 persistence.readStringFromPath(roomsPath),
+                persistence.readStringFromPath(seriesPath),
                 userHandler,
                 eventHandler);
 
@@ -63,10 +74,69 @@ public class SystemBuilder {
         persistence.saveDataToPath(userPath, userHandler.ObjectEncoder());
         persistence.saveDataToPath(roomsPath, eventHandler.roomWriter());
         persistence.saveDataToPath(eventsPath, eventHandler.eventWriter());
+        persistence.saveDataToPath(seriesPath, eventHandler.seriesWriter());
         persistence.saveDataToPath(messagesPath, messageHandler.fileWriter());
+        persistence.saveDataToPath(messageIndexPath, messageHandler.indexWriter());
         persistence.saveDataToPath(requestsPath, requestHandler.requestWriter());
     }
 
+    /**
+     * Exports the schedule of every user signed up for an event to their own iCalendar file, named after their
+     * username. The files are written in parallel.
+     * @return The errors, one per calendar that could not be written.
+     */
+    public List<String> exportAllCalendars(){
+        return eventSystem.getAttendeeUsernames().parallelStream()
+                .map(this::exportUserCalendar)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Exports the schedule of one user to their own iCalendar file.
+     * @param username The username of the user.
+     * @return The error, or null if the calendar was written.
+     */
+    private String exportUserCalendar(String username) {
+        String filePath = calendarsPath + File.separator + toFileName(username) + ".ics";
+        try (Writer writer = persistence.getWriterToPath(filePath)) {
+            eventSystem.exportCalendar("user", username, writer);
+            return null;
+        } catch (IOException e) {
+            return "could not write the calendar of " + username + " to " + filePath;
+        }
+    }
+
+    /**
+     * Turns a username into a file name that stays inside its folder. Letters, digits and '-' are kept, and every other
+     * character is written as '_' followed by its four digit hex code, so two usernames never share a file.
+     * @param username The username.
+     * @return The file name, without an extension.
+     */
+    private static String toFileName(String username) {
+        StringBuilder name = new StringBuilder();
+        for (char c : username.toCharArray()) {
+            if ((c < 128 && Character.isLetterOrDigit(c)) || c == '-')
+                name.append(c);
+            else
+                name.append('_').append(String.format("%04x", (int) c));
+        }
+        return name.toString();
+    }
+
+    /**
+     * Imports the rooms and events of a conference program from a CSV file. See EventSystem.importCsv for the format.
+     * @param filePath The path to the CSV file.
+     * @param createdByUser The username of the organizer importing the program.
+     * @return The errors, one per row that could not be imported.
+     * @throws IOException If the file cannot be read.
+     */
+    public List<String> importProgram(String filePath, String createdByUser) throws IOException {
+        try (Reader reader = persistence.getReaderFromPath(filePath)) {
+            return eventSystem.importCsv(createdByUser, reader);
+        }
+    }
+
     /**
      * returns the stored MessageSystem object.
      * @return MessageSystem object
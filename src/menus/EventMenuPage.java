@@ -7,6 +7,7 @@ import eventsfeature.RoomNotFoundException;
 import usersfeature.UserNotFoundException;
 import mainsystem.SystemBuilder;
 
+import java.io.IOException;
 import java.util.*;
 
 /** Represents a text interface for interacting with Events.
@@ -14,6 +15,10 @@ import java.util.*;
  */
 public class EventMenuPage extends MenuPresenter {
 
+    private static final int REPORT_TOP_EVENTS = 5;
+    private static final long SCHEDULE_TIME_BUDGET_MILLIS = 5000;
+
+    private final SystemBuilder sb;
     private final EventSystem es;
 
     /**
@@ -21,6 +26,7 @@ public class EventMenuPage extends MenuPresenter {
      * @param sb The string builder.
      */
     public EventMenuPage(SystemBuilder sb) {
+        this.sb = sb;
         this.es = sb.getEventSystem();
     }
 
@@ -51,7 +57,14 @@ public class EventMenuPage extends MenuPresenter {
                         "create room",
                         "create event",
                         "cancel event",
-                        "update event"));
+                        "update event",
+                        "create recurring event",
+                        "usage report",
+                        "import from CSV",
+                        "auto-schedule events",
+                        "cancel one occurrence of a recurring event",
+                        "remove recurring event series",
+                        "export everyone's calendars"));
             else
                 options = new ArrayList<>(Arrays.asList(
                         "view",
@@ -67,6 +80,14 @@ public class EventMenuPage extends MenuPresenter {
                     return "QuitPage";
                 case "4":
                     int joinId = getEventFromUser();
+                    if (es.getEventInfo(joinId).get("isFull").equals("true")) {
+                        int position = es.joinWaitlist(joinId, userName);
+                        if (position > 0)
+                            printSuccess("event id #" + joinId + " is full, you are #" + position + " on the waitlist");
+                        else
+                            printError("this event is VIP only");
+                        return "EventMenuPage";
+                    }
                     boolean success = es.attendEvent(joinId, userName);
                     if (success)
                         printSuccess("joined event id #" + joinId);
@@ -87,8 +108,8 @@ public class EventMenuPage extends MenuPresenter {
                 case "7":
                     List<String> data = getEventDataFromUser();
                     Set<String> requirements = getRequirementsFromUser(es.getAvailableFeatures());
-                    int roomNum = getEventRoomFromUser(
-                            es.getSuggestedRoomNumbers(requirements, Integer.parseInt(data.get(4))));
+                    int roomNum = getEventRoomFromUser(es.getSuggestedRoomNumbers(requirements,
+                            Integer.parseInt(data.get(4)), data.get(2), Integer.parseInt(data.get(3))));
                     String speakerName = data.get(0);
                     data.add(Integer.toString(roomNum));
                     int eventId = es.createEvent(speakerName, userName, data, requirements);
@@ -105,6 +126,62 @@ public class EventMenuPage extends MenuPresenter {
                     es.updateEventData(userName, updateId, updatedEventData);
                     printSuccess("info updated for event id #" + updateId);
                     return "EventMenuPage";
+                case "10":
+                    List<String> seriesData = getEventDataFromUser();
+                    int intervalDays = Integer.parseInt(askToEnter("days between occurrences (7 for weekly)"));
+                    int numOccurrences = Integer.parseInt(askToEnter("number of occurrences"));
+                    Set<String> seriesRequirements = getRequirementsFromUser(es.getAvailableFeatures());
+                    int seriesRoomNum = getEventRoomFromUser(es.getSuggestedRoomNumbers(seriesRequirements,
+                            Integer.parseInt(seriesData.get(4)), seriesData.get(2),
+                            Integer.parseInt(seriesData.get(3))));
+                    seriesData.add(Integer.toString(seriesRoomNum));
+                    int seriesId = es.createSeries(seriesData.get(0), userName, seriesData, seriesRequirements,
+                            intervalDays, numOccurrences);
+                    printSuccess("create recurring event series #" + seriesId);
+                    return "EventMenuPage";
+                case "11":
+                    printInfo(formatUsageReport(es.getRoomBookedHours(askToEnter("date of report (dd/MM/yyyy)")),
+                            es.getMostSubscribedEventData(REPORT_TOP_EVENTS), es.getOverallFillRatio()));
+                    return "EventMenuPage";
+                case "12":
+                    List<String> importErrors = sb.importProgram(askToEnter("path of the CSV file"), userName);
+                    if (importErrors.isEmpty())
+                        printSuccess("import program");
+                    else
+                        printInfo(formatErrors(importErrors, "rows could not be imported"));
+                    return "EventMenuPage";
+                case "13":
+                    int numToSchedule = Integer.parseInt(askToEnter("number of events to schedule"));
+                    List<List<String>> scheduleData = new ArrayList<>();
+                    List<Set<String>> scheduleRequirements = new ArrayList<>();
+                    for (int i = 1; i <= numToSchedule; i++) {
+                        print("Event " + i + " of " + numToSchedule + ". The date is the earliest start time.\n");
+                        List<String> eventData = getEventDataFromUser();
+                        eventData.add(askToEnter("latest start time [yyyy-MM-dd HH:mm]"));
+                        scheduleData.add(eventData);
+                        scheduleRequirements.add(getRequirementsFromUser(es.getAvailableFeatures()));
+                    }
+                    printInfo(formatScheduledEvents(es.scheduleEvents(userName, scheduleData, scheduleRequirements,
+                            SCHEDULE_TIME_BUDGET_MILLIS)));
+                    return "EventMenuPage";
+                case "14":
+                    int occurrenceSeriesId = getSeriesFromUser();
+                    String occurrenceTime = askToEnter("start time of the occurrence [yyyy-MM-dd HH:mm]");
+                    es.cancelOccurrence(userName, occurrenceSeriesId, occurrenceTime);
+                    printSuccess("cancel occurrence of series #" + occurrenceSeriesId + " at " + occurrenceTime);
+                    return "EventMenuPage";
+                case "15":
+                    int removeSeriesId = getSeriesFromUser();
+                    es.removeSeries(userName, removeSeriesId);
+                    printSuccess("remove recurring event series #" + removeSeriesId);
+                    return "EventMenuPage";
+                case "16":
+                    List<String> exportErrors = sb.exportAllCalendars();
+                    if (exportErrors.isEmpty())
+                        printSuccess("export calendars");
+                    else
+                        printInfo(formatErrors(exportErrors, "calendars could not be exported"));
+                    return "EventMenuPage";
                 default:
                     return "EventMenuPage";
             }
@@ -116,7 +193,61 @@ public class EventMenuPage extends MenuPresenter {
         } catch (NumberFormatException e){
             printError("Must be a number");
             return "EventMenuPage";
+        } catch (IOException e) {
+            printError("could not read file");
+            return "EventMenuPage";
+        }
+    }
+
+    /**
+     * Get a string representation of the parts of a bulk operation that failed, ie. the rows of an import.
+     * @param errors The errors, one per failed part.
+     * @param heading What failed, following the number of errors (ie. "rows could not be imported").
+     * @return A formatted string containing the errors.
+     */
+    private String formatErrors(List<String> errors, String heading) {
+        StringBuilder output = new StringBuilder("\n" + errors.size() + " " + heading + ":");
+        for (String error : errors)
+            output.append("\n").append(error);
+        return output.append("\n").toString();
+    }
+
+    /**
+     * Get a string representation of where a batch of events was scheduled.
+     * @param eventIds The event id created for each event of the batch, or -1 if it could not be placed.
+     * @return A formatted string containing the outcome for each event.
+     */
+    private String formatScheduledEvents(List<Integer> eventIds) {
+        StringBuilder output = new StringBuilder();
+        for (int i = 0; i < eventIds.size(); i++) {
+            output.append("\nevent ").append(i + 1).append(": ");
+            if (eventIds.get(i) == -1)
+                output.append("could not be placed");
+            else
+                output.append("created as event id #").append(eventIds.get(i));
         }
+        return output.append("\n").toString();
+    }
+
+    /**
+     * Get a string representation of how booked the rooms are and how full the events are.
+     * @param roomHours The hours each room is booked for, keyed by room number.
+     * @param topEvents Event data of the events with the most attendees, each with its "fillRatio".
+     * @param overallFillRatio The share of all seats that are taken.
+     * @return A formatted string containing the report.
+     */
+    private String formatUsageReport(Map<Integer, Double> roomHours, List<Map<String, String>> topEvents,
+                                     double overallFillRatio) {
+        StringBuilder output = new StringBuilder("\nHours booked per room:");
+        for (Map.Entry<Integer, Double> room : roomHours.entrySet())
+            output.append("\nroom ").append(room.getKey()).append(": ").append(room.getValue());
+        output.append("\nMost subscribed events:");
+        for (Map<String, String> event : topEvents)
+            output.append("\nevent id #").append(event.get("eventId")).append(" ").append(event.get("name"))
+                    .append(": ").append(event.get("numAttendees")).append(" attendees, ")
+                    .append(event.get("fillRatio")).append(" full");
+        output.append(String.format("%nOverall seats taken: %.2f%n", overallFillRatio));
+        return output.toString();
     }
 
     /**
@@ -132,6 +263,19 @@ public class EventMenuPage extends MenuPresenter {
         }
     }
 
+    /**
+     * Gets the id of a recurring event series from the user.
+     * @return The series id. Must always be an int.
+     * @throws InvalidEventFieldsException If the user doesn't give an integer.
+     */
+    private int getSeriesFromUser() throws InvalidEventFieldsException {
+        try {
+            return Integer.parseInt(askToEnter("series id"));
+        } catch (NumberFormatException e) {
+            throw new InvalidEventFieldsException("must be a number");
+        }
+    }
+
     /**
      * Gets a room type from the user.
      * @param availableTypes A string to tell the user which types are available.
@@ -1,6 +1,9 @@
 package menus;
 
 import eventsfeature.EventNotFoundException;
+import eventsfeature.EventPage;
+import eventsfeature.EventQuery;
+import eventsfeature.EventQueryBuilder;
 import eventsfeature.EventSystem;
 import eventsfeature.InvalidEventFieldsException;
 import eventsfeature.RoomNotFoundException;
@@ -14,6 +17,8 @@ import java.util.*;
  */
 public class EventViewPage extends MenuPresenter {
 
+    private static final int PAGE_SIZE = 20;
+
     private final EventSystem es;
 
     /**
@@ -42,7 +47,9 @@ public class EventViewPage extends MenuPresenter {
                         "within range",
                         "on specific date",
                         "with speakers",
-                        "my events"));
+                        "my events",
+                        "my free time",
+                        "matching several conditions"));
             else if (userType.equals("organizer"))
                 options = new ArrayList<>(Arrays.asList(
                         "specific event",
@@ -51,6 +58,8 @@ public class EventViewPage extends MenuPresenter {
                         "on specific date",
                         "with speakers",
                         "my events",
+                        "my free time",
+                        "matching several conditions",
                         "attendees"));
             else
                 options = new ArrayList<>(Arrays.asList(
@@ -59,7 +68,9 @@ public class EventViewPage extends MenuPresenter {
                         "within range",
                         "on specific date",
                         "with speakers",
-                        "my events"));
+                        "my events",
+                        "my free time",
+                        "matching several conditions"));
 
             switch (getMenuOption("This is the " + userType + " event view menu.", options)) {
                 case "1":
@@ -67,21 +78,28 @@ public class EventViewPage extends MenuPresenter {
                             (es.getEventInfo(getEventFromUser())))));
                     return "EventMenuPage";
                 case "2":
-                    printInfo(formatEventsList(es.getSpecificEventData("all", "")));
+                    printEventPages("all", "");
                     return "EventMenuPage";
                 case "3":
-                    printInfo(formatEventsList(es.getSpecificEventData("eventRange", getEventRangeFromUser())));
+                    printEventPages("eventRange", getEventRangeFromUser());
                     return "EventMenuPage";
                 case "4":
-                    printInfo(formatEventsList(es.getSpecificEventData("day", getDateFromUser())));
+                    printEventPages("day", getDateFromUser());
                     return "EventMenuPage";
                 case "5":
-                    printInfo(formatEventsList(es.getSpecificEventData("speakers", getSpeakersFromUser())));
+                    printEventPages("speakers", getSpeakersFromUser());
                     return "EventMenuPage";
                 case "6":
-                    printInfo(formatEventsList(es.getSpecificEventData("user", userName)));
+                    printEventPages("user", userName);
+                    printInfo(formatWaitlistPositions(es.getWaitlistPositions(userName)));
                     return "EventMenuPage";
                 case "7":
+                    printInfo(formatFreeSlots(es.getFreeSlots(userName, getDateFromUser())));
+                    return "EventMenuPage";
+                case "8":
+                    printQueryPages(getEventQueryFromUser(userName));
+                    return "EventMenuPage";
+                case "9":
                     printInfo(formatAttendeesList(es.getAllAttendeeUsernames(getEventFromUser())));
                     return "EventMenuPage";
                 default:
@@ -98,6 +116,41 @@ public class EventViewPage extends MenuPresenter {
         }
     }
 
+    /**
+     * Prints the events of a certain criteria one page at a time, asking the user before printing each next page.
+     * @param criteria Criteria of events to look for.
+     * @param details Details of criteria.
+     * @throws InvalidEventFieldsException If a detail isn't valid to its criteria.
+     * @throws EventNotFoundException If the event is not found.
+     */
+    private void printEventPages(String criteria, String details) throws InvalidEventFieldsException,
+            EventNotFoundException {
+        EventPage page = es.getSpecificEventDataPage(criteria, details, null, PAGE_SIZE);
+        printInfo(formatEventsList(page.getEvents()));
+        while (page.hasNextPage() && askToEnter("\"y\" to see more events, anything else to stop")
+                .equalsIgnoreCase("y")) {
+            page = es.getSpecificEventDataPage(criteria, details, page.getNextCursor(), PAGE_SIZE);
+            printInfo(formatEventsList(page.getEvents()));
+        }
+    }
+
+    /**
+     * Prints the events that meet every condition of a query one page at a time, asking the user before printing each
+     * next page.
+     * @param query The query.
+     * @throws InvalidEventFieldsException If the cursor of a page isn't valid.
+     * @throws EventNotFoundException If the event is not found.
+     */
+    private void printQueryPages(EventQuery query) throws InvalidEventFieldsException, EventNotFoundException {
+        EventPage page = es.getEventDataPage(query, null, PAGE_SIZE);
+        printInfo(formatEventsList(page.getEvents()));
+        while (page.hasNextPage() && askToEnter("\"y\" to see more events, anything else to stop")
+                .equalsIgnoreCase("y")) {
+            page = es.getEventDataPage(query, page.getNextCursor(), PAGE_SIZE);
+            printInfo(formatEventsList(page.getEvents()));
+        }
+    }
+
     /**
      * Get a string representing an event.
      * @param infos a list of information to format.
@@ -140,6 +193,35 @@ public class EventViewPage extends MenuPresenter {
         return output.append("\n").toString();
     }
 
+    /**
+     * Get a string representation of the user's place on the waitlist of each event they are waiting for.
+     * @param positions the positions on the waitlists, keyed by event id.
+     * @return A formatted string containing the position on each waitlist.
+     */
+    public String formatWaitlistPositions(Map<Integer, Integer> positions) {
+        if (positions.isEmpty())
+            return "not on any waitlist.";
+        StringBuilder output = new StringBuilder();
+        for (Map.Entry<Integer, Integer> position : positions.entrySet())
+            output.append("\nwaiting for event id #").append(position.getKey()).append(": #")
+                    .append(position.getValue()).append(" on the waitlist");
+        return output.append("\n").toString();
+    }
+
+    /**
+     * Get a string representation of the free time slots of a user on a day.
+     * @param slots the free time slots to format.
+     * @return A formatted string containing each free time slot.
+     */
+    public String formatFreeSlots(List<String> slots) {
+        StringBuilder output = new StringBuilder();
+        if (slots.isEmpty())
+            return "no free time on this day.";
+        for (String slot : slots)
+            output.append("\nfree: ").append(slot);
+        return output.append("\n").toString();
+    }
+
     /**
      * Gets a room number and event from the user and returns it back to the controller method to be used.
      * @return The room number and event id. Must always be a list of two Integers.
@@ -170,6 +252,40 @@ public class EventViewPage extends MenuPresenter {
         return askToEnter("date of events (dd/MM/yyyy)");
     }
 
+    /**
+     * Gets the conditions events must meet from the user, one at a time, and builds a query out of them. Each condition
+     * can be skipped by entering "any".
+     * @param userName The username of the current user, for the condition that they signed up for the event.
+     * @return The query, made with an EventQueryBuilder.
+     * @throws InvalidEventFieldsException If the date is not in the right format.
+     * @throws NumberFormatException If the room number is not a number.
+     */
+    private EventQuery getEventQueryFromUser(String userName) throws InvalidEventFieldsException {
+        EventQueryBuilder builder = es.getEventQueryBuilder();
+        print("Enter the conditions the events must meet. Enter \"any\" to skip a condition.\n");
+        String day = askToEnter("date of events (dd/MM/yyyy)");
+        if (!day.equalsIgnoreCase("any"))
+            builder.buildDay(day);
+        String speakers = askToEnter("speaker usernames, separated by commas, no spaces");
+        if (!speakers.equalsIgnoreCase("any"))
+            for (String speaker : speakers.split(","))
+                builder.buildSpeaker(speaker);
+        String roomNum = askToEnter("room number");
+        if (!roomNum.equalsIgnoreCase("any"))
+            builder.buildRoom(Integer.parseInt(roomNum));
+        String vip = askToEnter("\"y\" for VIP only events, \"n\" for events open to everyone");
+        if (vip.equalsIgnoreCase("y") || vip.equalsIgnoreCase("n"))
+            builder.buildVIP(vip.equalsIgnoreCase("y"));
+        if (askToEnter("\"y\" for events with seats left").equalsIgnoreCase("y"))
+            builder.buildHasSeatsLeft();
+        String requirements = askToEnter("requirements, separated by commas, no spaces");
+        if (!requirements.equalsIgnoreCase("any"))
+            builder.buildRequirements(new HashSet<>(Arrays.asList(requirements.toLowerCase().split(","))));
+        if (askToEnter("\"y\" for events you signed up for").equalsIgnoreCase("y"))
+            builder.buildAttendee(userName);
+        return builder.buildEventQuery();
+    }
+
     /**
      * Gets a speaker from the user and returns it back to the controller method to be used.
      * @return The speakerId.
@@ -38,8 +38,9 @@ public class MessageMenuPage extends MenuPresenter {
         ms.updateAllUsers();
         this.userType = ms.getUserType();
         ArrayList<String> options = new ArrayList<>(Arrays.asList(
-                "View conversation.",
+                "View conversation. (" + ms.getUnreadCount() + " unread)",
                 "Create new conversation.",
+                "Search messages.",
                 "Exit."));
         switch(getMenuOption("This is the message main menu.", options)){
             case "1":   //view conversation
@@ -74,10 +75,34 @@ public class MessageMenuPage extends MenuPresenter {
                     return "SpeakerMessagePage";
                 }
 
-            case "3":   //exit
+            case "3":   //search messages
+                print(formatSearchResults(ms.searchMessages(askToEnter(
+                        "words to search for (end a word with * to match its start, quote phrases)"))));
+                return "MessageMenuPage";
+            case "4":   //exit
                 return "MainMenuPage";
             default:    //invalid input
                 return "MessageMenuPage";
         }
     }
+
+    /**
+     * Formats the messages found by a search for display.
+     * @param messageIds The IDs of the messages found.
+     * @return A formatted string containing the messages.
+     */
+    private String formatSearchResults(List<Integer> messageIds){
+        if(messageIds.isEmpty()){
+            return "No messages found.\n";
+        }
+        StringBuilder output = new StringBuilder();
+        for(Integer id: messageIds){
+            List<String> messageInfo = ms.getMessageInfo(id);
+            output.append("ID: ").append(id).append(" | ");
+            output.append("Sender: ").append(messageInfo.get(1)).append(" | ");
+            output.append("Time: ").append(messageInfo.get(3)).append("\n");
+            output.append(">> ").append(messageInfo.get(0)).append("\n\n");
+        }
+        return output.toString();
+    }
 }
@@ -6,7 +6,9 @@ import mainsystem.SystemBuilder;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /** Represents a text interface for the view conversation page.
  * @author Caroline McKenzie, Anastasia Young, Yijia Zhou
@@ -73,8 +75,8 @@ public class ViewConversationPage extends MenuPresenter {
     }
 
     private String displayAllConvos(List<Integer> allConversations){
-        List<Integer> readConversations = ms.getUserReadConversations();
-        StringBuilder convoIDString = new StringBuilder("Conversation ID(s): \n");
+        Set<Integer> readConversations = new HashSet<>(ms.getUserReadConversations());
+        StringBuilder convoIDString = new StringBuilder("Conversation ID(s) (" + ms.getUnreadCount() + " unread): \n");
         ArrayList<Integer> convoID = new ArrayList<>(allConversations);
         if (convoID.isEmpty()){
             return "You do not have any conversations.";
@@ -71,48 +71,71 @@ public class Conversation {
     /**
      * Deletes a message id to this conversation.
      * @param messageId An integer representing the message id.
+     * @return true if the message was an active message of this conversation.
      */
-    public void deleteMessage(int messageId){
-        activeMessages.remove(new Integer(messageId));
+    public boolean deleteMessage(int messageId){
+        return activeMessages.remove(Integer.valueOf(messageId));
     }
 
     /**
-     * Add messages id to archived message list.
+     * Add messages id to archived message list, if it is an active message of this conversation.
      * @param messageId An integer representing the message id.
+     * @return true if the message was archived.
      */
-    public void archiveMessage(int messageId){
-        archivedMessages.add(messageId);
-        activeMessages.remove(Integer.valueOf(messageId));
+    public boolean archiveMessage(int messageId){
+        if(activeMessages.remove(Integer.valueOf(messageId))){
+            archivedMessages.add(messageId);
+            return true;
+        }
+        return false;
     }
 
     /**
      * Removes messages id to archived message list.
      * @param messageId An integer representing the message id.
+     * @return true if the message was an archived message of this conversation.
      */
-    public void unarchiveMessage(int messageId){
-        archivedMessages.remove(Integer.valueOf(messageId));
+    public boolean unarchiveMessage(int messageId){
+        if(!archivedMessages.remove(Integer.valueOf(messageId))){
+            return false;
+        }
         for(int i=0; i<activeMessages.size();i++){
             if(activeMessages.get(i) > messageId){
                 activeMessages.add(i, messageId);
-                return;
+                return true;
             }
         }
+        return true;
     }
 
     /**
      * Sets this conversation as read by a certain user.
      * @param user username of the user who has unread the conversation.
+     * @return true if the user had not read this conversation before.
      */
-    public void setConvoasRead(String user){
-        this.read.put(user, 1);
+    public boolean setConvoasRead(String user){
+        Integer old = this.read.put(user, 1);
+        return old == null || old != 1;
     }
 
     /**
      * Sets this conversation as unread by a certain user.
      * @param user username of the user who has unread the conversation.
+     * @return true if the user had read this conversation before.
+     */
+    public boolean setConvoasUnread(String user){
+        Integer old = this.read.put(user, 0);
+        return old != null && old == 1;
+    }
+
+    /**
+     * Checks if a certain user has read this conversation.
+     * @param user username of the user.
+     * @return true if the user has read this conversation.
      */
-    public void setConvoasUnread(String user){
-        this.read.put(user, 0);
+    public boolean isReadBy(String user){
+        Integer r = this.read.get(user);
+        return r != null && r == 1;
     }
 
     /**
@@ -1,9 +1,18 @@
 package messagesfeature;
 
+import java.nio.charset.StandardCharsets;
 import java.time.format.DateTimeFormatter;
 import java.time.*;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
 
 /**
  * Use case class that handles messages and conversations.
@@ -12,11 +21,21 @@ import java.util.List;
 
 public class MessageHandler {
 
-    private List<Message> messages;
-    private List<Conversation> conversations;
+    private List<Message> messages; // message with id i is at index i - 1
+    private Map<Integer, Conversation> conversations; // conversation id -> conversation, in order of creation
+    private Map<Integer, Integer> messageConvos; // message id -> id of the conversation it is in
+    private Map<String, Set<Integer>> userConvos; // username -> ids of the conversations they are in, oldest first
+    private Map<String, Integer> unreadCounts; // username -> number of their conversations they have not read
+    // set of members -> id of the first conversation with exactly those members. Sets hash the same whatever the order
+    // of their members, and the map still compares the sets themselves, so different sets sharing a hash never match.
+    private Map<Set<String>, Integer> membersConvos;
+    private MessageIndex index; // words of messages -> ids of the messages they appear in
     private int newMessageId;
     private int newConvoId;
     private static final String DATE_FORMAT = "yyyy-MM-dd HH:mm";
+    // stands in for a conversation that does not exist, so that lookups never have to build one
+    private static final Conversation NO_CONVERSATION = new Conversation(Collections.emptyList(), -1,
+            new HashMap<>(), Collections.emptyList(), Collections.emptyList());
     //builder objects
     private ConversationBuilder convoBuilder;
     private MessageBuilder messageBuilder;
@@ -26,7 +45,12 @@ public class MessageHandler {
      */
     public MessageHandler(){
         this.messages = new ArrayList<> ();
-        this.conversations = new ArrayList<> ();
+        this.conversations = new LinkedHashMap<> ();
+        this.messageConvos = new HashMap<> ();
+        this.userConvos = new HashMap<> ();
+        this.unreadCounts = new HashMap<> ();
+        this.membersConvos = new HashMap<> ();
+        this.index = new MessageIndex();
         this.newMessageId = 1;
         this.newConvoId = 1;
         this.convoBuilder = new ConversationBuilder();
@@ -38,11 +62,7 @@ public class MessageHandler {
      * @return list of Conversation ids.
      */
     public List<Integer> getConversationIDs(){
-        ArrayList<Integer> list_id = new ArrayList<Integer>();
-        for (Conversation c: conversations){
-            list_id.add(c.getConvoId());
-        }
-        return list_id;
+        return new ArrayList<>(conversations.keySet());
         }
 
 
@@ -52,8 +72,9 @@ public class MessageHandler {
      * @param sender The sender of the message.
      * @param parentId The ID of the message that this message is replying to.
      * @param timestamp The time that the message has been created.
+     * @return the id of the new message.
      */
-    public void createMessage(String content, String sender, int parentId, LocalDateTime timestamp, int convoId){
+    public int createMessage(String content, String sender, int parentId, LocalDateTime timestamp, int convoId){
         String dateTime = DateTimeFormatter.ofPattern(DATE_FORMAT).format(timestamp);
         LocalDateTime actual_dateTime = LocalDateTime.parse(dateTime, DateTimeFormatter.ofPattern(DATE_FORMAT));
         // build message
@@ -65,8 +86,15 @@ public class MessageHandler {
         Message m = messageBuilder.buildMessage();
         // add message to conversation
         messages.add(m);
-        Conversation c = getConvoWithId(convoId);
-        c.addMessage(m.getId());
+        if (m.getId() > index.getNumIndexed()){ // messages read in along with a saved index are already in it
+            index.addMessage(m.getId(), content);
+        }
+        Conversation c = conversations.get(convoId);
+        if (c != null){
+            c.addMessage(m.getId());
+            messageConvos.put(m.getId(), convoId);
+        }
+        return m.getId();
     }
 
     /**
@@ -81,29 +109,24 @@ public class MessageHandler {
         convoBuilder.buildActiveMessages();
         convoBuilder.buildArchivedMessages();
         Conversation c = convoBuilder.buildConversation();
-        conversations.add(c);
+        conversations.put(c.getConvoId(), c);
+        membersConvos.putIfAbsent(Collections.unmodifiableSet(new HashSet<>(users)), c.getConvoId());
+        for (String user: users){
+            if (userConvos.computeIfAbsent(user, k -> new LinkedHashSet<>()).add(c.getConvoId())){
+                unreadCounts.merge(user, 1, Integer::sum);
+            }
+        }
         return c.getConvoId();
     }
 
     /**
      * Given an id value, this method finds the corresponding conversation object if it exists.
      * @param convoId Id value of the conversation to find.
-     * @return Conversation object matching the id if it exists.
+     * @return Conversation object matching the id if it exists, or an empty conversation with id -1 otherwise. The
+     * empty conversation is shared and must not be changed.
      */
     private Conversation getConvoWithId(int convoId){
-        for(Conversation c: conversations){
-            if(c.getConvoId() == convoId){
-                return c;
-            }
-        }
-        ArrayList<String> emptyUsers = new ArrayList<>();
-        // build fake message
-        convoBuilder.buildConvoID(-1);
-        convoBuilder.buildUsers(emptyUsers);
-        convoBuilder.buildRead(emptyUsers);
-        convoBuilder.buildActiveMessages();
-        convoBuilder.buildArchivedMessages();
-        return convoBuilder.buildConversation();
+        return conversations.getOrDefault(convoId, NO_CONVERSATION);
     }
 
     /**
@@ -113,13 +136,14 @@ public class MessageHandler {
      */
     public List<String> messageInfo(int id){
         ArrayList<String> info = new ArrayList<>();
-        if(messages.size() < id){
+        if(id < 1 || messages.size() < id){
             return info;
         }
-        info.add(messages.get(id-1).getContent());
-        info.add(messages.get(id-1).getSender());
-        info.add(Integer.toString(messages.get(id-1).getParentId()));
-        info.add(messages.get(id-1).getTimestamp().toString());
+        Message m = messages.get(id-1);
+        info.add(m.getContent());
+        info.add(m.getSender());
+        info.add(Integer.toString(m.getParentId()));
+        info.add(m.getTimestamp().toString());
         return info;
     }
 
@@ -139,8 +163,10 @@ public class MessageHandler {
      * @param convoId conversation id.
      */
     public void archiveMessage(int messageId, int convoId){
-        Conversation c = getConvoWithId(convoId);
-        c.archiveMessage(messageId);
+        Conversation c = conversations.get(convoId);
+        if (c != null && c.archiveMessage(messageId)){
+            index.hideMessage(messageId);
+        }
     }
 
 
@@ -150,8 +176,10 @@ public class MessageHandler {
      * @param convoId conversation id.
      */
     public void unarchiveMessage(int messageId, int convoId){
-        Conversation c = getConvoWithId(convoId);
-        c.unarchiveMessage(messageId);
+        Conversation c = conversations.get(convoId);
+        if (c != null && c.unarchiveMessage(messageId)){
+            index.showMessage(messageId);
+        }
     }
 
     /**
@@ -160,8 +188,26 @@ public class MessageHandler {
      * @param convoId conversation id.
      */
     public void deleteMessage(int messageId, int convoId){
-        Conversation c = getConvoWithId(convoId);
-        c.deleteMessage(messageId);
+        Conversation c = conversations.get(convoId);
+        if (c != null && c.deleteMessage(messageId)){
+            messageConvos.remove(messageId);
+            index.hideMessage(messageId);
+        }
+    }
+
+    /**
+     * Searches the active messages of the conversations a user is in. See MessageIndex.search for the query syntax.
+     * @param username username of the user searching.
+     * @param query the words, word prefixes ending with * and phrases in double quotes to search for.
+     * @return ids of the messages that match every part of the query, oldest first.
+     */
+    public List<Integer> searchMessages(String username, String query){
+        Set<Integer> convoIds = userConvos.get(username);
+        if (convoIds == null){
+            return new ArrayList<>();
+        }
+        return index.search(query, id -> convoIds.contains(messageConvos.get(id)),
+                id -> messages.get(id-1).getContent());
     }
 
     /**
@@ -172,29 +218,20 @@ public class MessageHandler {
      * any messages in this conversation.
      */
     public Message getMessageWithId(int messageId) throws MessageNotFoundException{
-        for (Message m: messages){
-            if(m.getId() == (messageId)){
-                return m;
-            }
+        if(messageId < 1 || messages.size() < messageId){
+            throw new MessageNotFoundException();
         }
-        throw new MessageNotFoundException();
+        return messages.get(messageId-1);
     }
 
     /**
-     * Checks if a conversation with the given list of users already exists.
+     * Checks if a conversation with the given list of users already exists, whatever the order of the users.
      * @param users ArrayList of strings representing usernames of users in the conversation.
      * @return boolean value that represents whether or not there already exists a conversation
      * with these users.
      */
     public boolean convoExistsWithUsers(List<String> users){
-        boolean exists = false;
-        for(Conversation c: conversations){
-            if(users.equals(c.getUsers())){
-                exists = true;
-                break;
-            }
-        }
-        return exists;
+        return membersConvos.containsKey(new HashSet<>(users));
     }
 
     /**
@@ -202,23 +239,27 @@ public class MessageHandler {
      * @return list of conversation ids.
      */
     public List<Integer> getUserConversations(String username){
-        ArrayList<Integer> convoIds = new ArrayList<>();
-        for(Conversation c: conversations){
-            if(c.getUsers().contains(username)){
-                convoIds.add(c.getConvoId());
-            }
-        }
-        return convoIds;
+        return new ArrayList<>(userConvos.getOrDefault(username, Collections.emptySet()));
+    }
+
+    /**
+     * Gets the number of conversations a user is in but has not read.
+     * @param username username of user
+     * @return the number of unread conversations.
+     */
+    public int getUnreadCount(String username){
+        return unreadCounts.getOrDefault(username, 0);
     }
 
     /**
      * Gets all message ids of messages from a given conversation.
      * @param convoId Id value of the conversation.
-     * @return List of Message objects that represent all messages in the conversation.
+     * @return A new list of the ids of all active messages in the conversation, followed by the archived ones.
      */
     public List<Integer> getMessagesFromConvo(int convoId){
-        List<Integer> messages = this.getConvoWithId(convoId).getActiveMessages();
-        messages.addAll(this.getConvoWithId(convoId).getArchivedMessages());
+        Conversation c = this.getConvoWithId(convoId);
+        List<Integer> messages = new ArrayList<>(c.getActiveMessages());
+        messages.addAll(c.getArchivedMessages());
         return messages;
     }
 
@@ -229,15 +270,11 @@ public class MessageHandler {
      * @throws MessageNotFoundException if the message id does not exist.
      */
     public Integer getConvoWithMessage(int messageId) throws MessageNotFoundException {
-        for (Conversation c: conversations){
-            List<Integer> messages = this.getMessagesFromConvo(c.getConvoId());
-            for(Integer i : messages){
-                if(i == messageId){
-                    return c.getConvoId();
-                }
-            }
+        Integer convoId = messageConvos.get(messageId);
+        if(convoId == null){
+            throw new MessageNotFoundException();
         }
-        throw new MessageNotFoundException();
+        return convoId;
     }
 
     /**
@@ -282,19 +319,19 @@ public class MessageHandler {
         return s.toString();
     }
 
-    private String encryptConversation(Integer convoId){
+    private String encryptConversation(Conversation c){
         StringBuilder convo_info_stringb = new StringBuilder();
-        convo_info_stringb.append(convoId.toString());
+        convo_info_stringb.append(c.getConvoId().toString());
         convo_info_stringb.append("##");
-        convo_info_stringb.append(encryptUsers(getConvoUsers(convoId)));
+        convo_info_stringb.append(encryptUsers(c.getUsers()));
         convo_info_stringb.append("##");
-        convo_info_stringb.append(encryptUsers(getReadUsers(convoId)));
+        convo_info_stringb.append(encryptUsers(c.getReadUsers()));
         convo_info_stringb.append("##");
-        for (Integer m_id : getConvoActive(convoId)) {
+        for (Integer m_id : c.getActiveMessages()) {
             Message m = getMessageWithId(m_id);
             convo_info_stringb.append(encryptMessage(m.getId(), false)).append("##");
         }
-        for (Integer m_id : getConvoArchive(convoId)) {
+        for (Integer m_id : c.getArchivedMessages()) {
             Message m = getMessageWithId(m_id);
             convo_info_stringb.append(encryptMessage(m.getId(), true)).append("##");
         }
@@ -307,8 +344,10 @@ public class MessageHandler {
      * @param convoID the id of the conversation being marked as read.
      */
     public void setConvoasRead(String user, Integer convoID){
-        Conversation c = getConvoWithId(convoID);
-        c.setConvoasRead(user);
+        Conversation c = conversations.get(convoID);
+        if (c != null && c.setConvoasRead(user) && isInConvo(user, convoID)){
+            unreadCounts.merge(user, -1, Integer::sum);
+        }
     }
 
     /**
@@ -317,7 +356,40 @@ public class MessageHandler {
      * @param convoId id of the conversation being marked as unread.
      */
     public void setConvoasUnread(String user, Integer convoId){
-        getConvoWithId(convoId).setConvoasUnread(user);
+        Conversation c = conversations.get(convoId);
+        if (c != null && c.setConvoasUnread(user) && isInConvo(user, convoId)){
+            unreadCounts.merge(user, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Marks a conversation as read by the sender of a new message, and as unread by every other member.
+     * @param sender username of the user who sent the message.
+     * @param convoId id of the conversation the message was sent to.
+     */
+    public void setConvoasNewMessage(String sender, Integer convoId){
+        Conversation c = conversations.get(convoId);
+        if (c == null){
+            return;
+        }
+        for (String user: c.getUsers()){
+            if (user.equals(sender)){
+                setConvoasRead(user, convoId);
+            } else {
+                setConvoasUnread(user, convoId);
+            }
+        }
+    }
+
+    /**
+     * Checks if a user is a member of a conversation.
+     * @param user username of the user.
+     * @param convoId id of the conversation.
+     * @return true if the user is in the conversation.
+     */
+    private boolean isInConvo(String user, Integer convoId){
+        Set<Integer> convoIds = userConvos.get(user);
+        return convoIds != null && convoIds.contains(convoId);
     }
 
     /**
@@ -337,11 +409,9 @@ public class MessageHandler {
      */
     public List<Integer> getUserReadConversations(String username){
         ArrayList<Integer> convoIds = new ArrayList<>();
-        for (Conversation c: conversations){
-            for (String user: c.getReadUsers()){
-                if (user.equals(username)){
-                    convoIds.add(c.getConvoId());
-                }
+        for (Integer convoId: userConvos.getOrDefault(username, Collections.emptySet())){
+            if (conversations.get(convoId).isReadBy(username)){
+                convoIds.add(convoId);
             }
         }
         return convoIds;
@@ -359,14 +429,87 @@ public class MessageHandler {
         return i;
     }
 
+    /**
+     * Method calls the Persistence class to update the file which stores the search index of Messages. Messages are
+     * given new ids when the messages file is read back, so the index is saved with those ids.
+     * @return the string of information to save to the file.
+     */
+    public String indexWriter(){
+        int[] savedIds = new int[messages.size() + 1];
+        int numSaved = 0;
+        CRC32 checksum = new CRC32();
+        for (Conversation c : conversations.values()) {
+            for (Integer m_id : c.getActiveMessages()) {
+                savedIds[m_id] = ++numSaved;
+                addToChecksum(checksum, messages.get(m_id - 1).getContent());
+            }
+            for (Integer m_id : c.getArchivedMessages()) {
+                savedIds[m_id] = ++numSaved;
+                addToChecksum(checksum, messages.get(m_id - 1).getContent());
+            }
+        }
+        return index.indexWriter(savedIds, numSaved, checksum.getValue());
+    }
+
+    /**
+     * Reads in the saved search index of Messages. Must be called before the messages themselves are read in, so
+     * that they are not indexed again.
+     * @param input the string of information retrieved from the file.
+     */
+    public void indexReader(String input){
+        index.indexReader(input);
+    }
+
+    /**
+     * Rebuilds the search index of Messages if the saved index that was read in does not match the messages read in,
+     * ie. if it is missing or out of date. The index matches if it was saved with as many messages as were read in,
+     * and with the same checksum of their contents.
+     */
+    public void checkIndex(){
+        CRC32 checksum = new CRC32();
+        for (Message m : messages) {
+            addToChecksum(checksum, m.getContent());
+        }
+        if (index.getNumIndexed() == messages.size() && index.getSavedChecksum() == checksum.getValue()){
+            return;
+        }
+        index = new MessageIndex();
+        for (Message m : messages) {
+            index.addMessage(m.getId(), m.getContent());
+            if (!messageConvos.containsKey(m.getId())){
+                index.hideMessage(m.getId());
+            }
+        }
+        for (Conversation c : conversations.values()) {
+            for (Integer m_id : c.getArchivedMessages()) {
+                index.hideMessage(m_id);
+            }
+        }
+    }
+
+    /**
+     * Adds the content of a message to a checksum of message contents. The length goes in first, so that moving text
+     * from one message to the next changes the checksum.
+     * @param checksum the checksum.
+     * @param content the content of the message.
+     */
+    private static void addToChecksum(CRC32 checksum, String content){
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        checksum.update(bytes.length >>> 24);
+        checksum.update(bytes.length >>> 16);
+        checksum.update(bytes.length >>> 8);
+        checksum.update(bytes.length);
+        checksum.update(bytes);
+    }
+
     /**
      * Method calls the Persistence class to update the file which stores the data associated with Messages.
      * @return the string of information to save to the file.
      */
     public String fileWriter(){
         StringBuilder all_msg_info_ever = new StringBuilder();
-        for (Integer c_id : getConversationIDs()) {
-            all_msg_info_ever.append(encryptConversation(c_id));
+        for (Conversation c : conversations.values()) {
+            all_msg_info_ever.append(encryptConversation(c));
             all_msg_info_ever.append("&&");
         }
         return all_msg_info_ever.toString();
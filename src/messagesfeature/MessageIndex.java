@@ -0,0 +1,393 @@
+package messagesfeature;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+
+/**
+ * An inverted index from the words of messages to the ids of the messages they appear in, used to search messages.
+ * Words are runs of letters and digits, compared in lower case. Archived and deleted messages stay in the index but
+ * are hidden from searches.
+ * @author Caroline McKenzie, Anastasia Young, Yijia Zhou
+ */
+public class MessageIndex {
+
+    private static final String FIELD_DELIMITER = "%%";
+    private static final char ID_DELIMITER = ',';
+    private static final char PREFIX_WILDCARD = '*';
+    private static final char PHRASE_QUOTE = '"';
+
+    /**
+     * The ids of the messages a word appears in, in increasing order.
+     */
+    private static class Postings {
+        private int[] ids = new int[2];
+        private int size = 0;
+
+        private void add(int id) {
+            if (size > 0 && ids[size - 1] >= id) {
+                if (ids[size - 1] == id) {
+                    return;
+                }
+                int at = Arrays.binarySearch(ids, 0, size, id);
+                if (at >= 0) {
+                    return;
+                }
+                insert(-at - 1, id);
+                return;
+            }
+            insert(size, id);
+        }
+
+        private void insert(int at, int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            }
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            ids[at] = id;
+            size++;
+        }
+
+        private boolean contains(int id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+    }
+
+    private final TreeMap<String, Postings> postings; // sorted, so that prefix searches read one range
+    private final BitSet hidden; // ids of archived or deleted messages
+    private int numIndexed; // messages with ids up to this one are in the index
+    private long savedChecksum; // checksum of the contents of the messages, read in along with a saved index
+
+    /**
+     * Constructs an empty MessageIndex.
+     */
+    public MessageIndex() {
+        this.postings = new TreeMap<>();
+        this.hidden = new BitSet();
+        this.numIndexed = 0;
+        this.savedChecksum = 0;
+    }
+
+    /**
+     * Gets the number of messages indexed, which are the messages with ids 1 up to that number.
+     * @return the number of messages indexed.
+     */
+    public int getNumIndexed() {
+        return numIndexed;
+    }
+
+    /**
+     * Gets the checksum of the contents of the messages the index was saved with, as given to indexWriter.
+     * @return the checksum read in along with the index, or 0 if no index was read.
+     */
+    public long getSavedChecksum() {
+        return savedChecksum;
+    }
+
+    /**
+     * Adds a message to the index.
+     * @param id id of the message.
+     * @param content content of the message.
+     */
+    public void addMessage(int id, String content) {
+        for (String word : tokenize(content)) {
+            postings.computeIfAbsent(word, k -> new Postings()).add(id);
+        }
+        numIndexed = Math.max(numIndexed, id);
+    }
+
+    /**
+     * Hides a message from searches, ie. when it is archived or deleted.
+     * @param id id of the message.
+     */
+    public void hideMessage(int id) {
+        hidden.set(id);
+    }
+
+    /**
+     * Shows a hidden message in searches again, ie. when it is unarchived.
+     * @param id id of the message.
+     */
+    public void showMessage(int id) {
+        hidden.clear(id);
+    }
+
+    /**
+     * Searches the messages. The query is a list of terms separated by spaces, and a message matches if it matches
+     * every term. A term is either a word, a word ending with * to match every word starting with it, or a phrase in
+     * double quotes to match those words next to each other in that order.
+     * @param query the query.
+     * @param allowed tells if a message id may be returned, ie. if the user searching is in its conversation.
+     * @param contents gives the content of a message from its id, used to check phrases.
+     * @return ids of the matching messages, in increasing order.
+     */
+    public List<Integer> search(String query, IntPredicate allowed, IntFunction<String> contents) {
+        List<Postings> lists = new ArrayList<>();
+        List<List<String>> phrases = new ArrayList<>();
+        if (!parseQuery(query, lists, phrases)) {
+            return new ArrayList<>();
+        }
+        lists.sort((a, b) -> Integer.compare(a.size, b.size));
+        List<Integer> results = new ArrayList<>();
+        Postings shortest = lists.get(0);
+        for (int i = 0; i < shortest.size; i++) {
+            int id = shortest.ids[i];
+            if (hidden.get(id) || !allowed.test(id) || !inAll(lists, id)) {
+                continue;
+            }
+            if (!phrases.isEmpty() && !containsPhrases(tokenize(contents.apply(id)), phrases)) {
+                continue;
+            }
+            results.add(id);
+        }
+        return results;
+    }
+
+    /**
+     * Encapsulates the index into a String, giving messages the ids they will have once the messages are read back
+     * from the file. Messages that are not saved are left out.
+     * @param savedIds the id each message will have once read back, indexed by its current id, or 0 if it is not saved.
+     * @param numSaved the number of messages saved.
+     * @param checksum a checksum of the contents of the messages saved, so that the index can be checked against the
+     *                 messages read back.
+     * @return the string of information to save to the file.
+     */
+    public String indexWriter(int[] savedIds, int numSaved, long checksum) {
+        StringBuilder output = new StringBuilder();
+        output.append(numSaved).append(FIELD_DELIMITER).append(checksum).append("\n");
+        for (Map.Entry<String, Postings> entry : postings.entrySet()) {
+            Postings list = entry.getValue();
+            int[] ids = new int[list.size];
+            int size = 0;
+            for (int i = 0; i < list.size; i++) {
+                if (list.ids[i] < savedIds.length && savedIds[list.ids[i]] > 0) {
+                    ids[size++] = savedIds[list.ids[i]];
+                }
+            }
+            if (size == 0) {
+                continue;
+            }
+            Arrays.sort(ids, 0, size);
+            output.append(entry.getKey()).append(FIELD_DELIMITER);
+            for (int i = 0; i < size; i++) {
+                if (i > 0) {
+                    output.append(ID_DELIMITER);
+                }
+                output.append(ids[i]);
+            }
+            output.append("\n");
+        }
+        return output.toString();
+    }
+
+    /**
+     * Reads in an index saved by indexWriter, replacing what is in this index. Nothing is read if the data is not
+     * in the right format, or was saved without a checksum.
+     * @param input the string of information retrieved from the file.
+     * @return true if the index was read.
+     */
+    public boolean indexReader(String input) {
+        if (input == null || input.isEmpty()) {
+            return false;
+        }
+        TreeMap<String, Postings> read = new TreeMap<>();
+        int numSaved;
+        long checksum;
+        try {
+            int lineEnd = lineEnd(input, 0);
+            int headerSplit = input.indexOf(FIELD_DELIMITER);
+            if (headerSplit == -1 || headerSplit > lineEnd) {
+                return false;
+            }
+            numSaved = Integer.parseInt(input, 0, headerSplit, 10);
+            checksum = Long.parseLong(input.substring(headerSplit + FIELD_DELIMITER.length(), lineEnd).trim());
+            int start = lineEnd + 1;
+            while (start < input.length()) {
+                int end = lineEnd(input, start);
+                int split = input.indexOf(FIELD_DELIMITER, start);
+                if (split > start && split < end) {
+                    Postings list = new Postings();
+                    int from = split + FIELD_DELIMITER.length();
+                    while (from < end) {
+                        int to = input.indexOf(ID_DELIMITER, from);
+                        if (to == -1 || to > end) {
+                            to = end;
+                        }
+                        list.add(Integer.parseInt(input, from, to, 10));
+                        from = to + 1;
+                    }
+                    read.put(input.substring(start, split), list);
+                }
+                start = end + 1;
+            }
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        postings.clear();
+        postings.putAll(read);
+        hidden.clear();
+        numIndexed = numSaved;
+        savedChecksum = checksum;
+        return true;
+    }
+
+    /**
+     * Splits text into lower case words.
+     * @param text the text.
+     * @return the words of the text, in order.
+     */
+    private static List<String> tokenize(String text) {
+        List<String> words = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean inWord = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (inWord && start == -1) {
+                start = i;
+            } else if (!inWord && start != -1) {
+                words.add(text.substring(start, i).toLowerCase());
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Splits a query into its terms, and looks up the messages each word or prefix appears in.
+     * @param query the query.
+     * @param lists filled with the ids of the messages each word, prefix or word of a phrase appears in.
+     * @param phrases filled with the words of each phrase of two words or more.
+     * @return false if the query has no terms or a term matches no messages, in which case nothing matches.
+     */
+    private boolean parseQuery(String query, List<Postings> lists, List<List<String>> phrases) {
+        int i = 0;
+        while (i < query.length()) {
+            char c = query.charAt(i);
+            if (c == PHRASE_QUOTE) {
+                int end = query.indexOf(PHRASE_QUOTE, i + 1);
+                if (end == -1) {
+                    end = query.length();
+                }
+                List<String> words = tokenize(query.substring(i + 1, end));
+                for (String word : words) {
+                    if (!addList(lists, getIds(word))) {
+                        return false;
+                    }
+                }
+                if (words.size() > 1) {
+                    phrases.add(words);
+                }
+                i = end + 1;
+            } else if (Character.isWhitespace(c)) {
+                i++;
+            } else {
+                int end = i;
+                while (end < query.length() && !Character.isWhitespace(query.charAt(end))
+                        && query.charAt(end) != PHRASE_QUOTE) {
+                    end++;
+                }
+                String term = query.substring(i, end);
+                boolean prefix = term.charAt(term.length() - 1) == PREFIX_WILDCARD;
+                for (String word : tokenize(term)) {
+                    if (!addList(lists, prefix ? getPrefixIds(word) : getIds(word))) {
+                        return false;
+                    }
+                }
+                i = end;
+            }
+        }
+        return !lists.isEmpty();
+    }
+
+    /**
+     * Adds the ids of the messages a term appears in to a list of lists.
+     * @param lists the list of lists.
+     * @param ids the ids, or null if there are none.
+     * @return false if there are no ids.
+     */
+    private boolean addList(List<Postings> lists, Postings ids) {
+        if (ids == null || ids.size == 0) {
+            return false;
+        }
+        lists.add(ids);
+        return true;
+    }
+
+    /**
+     * Gets the ids of the messages a word appears in.
+     * @param word the word.
+     * @return the ids, or null if there are none.
+     */
+    private Postings getIds(String word) {
+        return postings.get(word);
+    }
+
+    /**
+     * Gets the ids of the messages a word starting with a prefix appears in.
+     * @param prefix the prefix.
+     * @return the ids, or null if there are none.
+     */
+    private Postings getPrefixIds(String prefix) {
+        Map<String, Postings> words = postings.subMap(prefix, prefix + Character.MAX_VALUE);
+        if (words.size() <= 1) {
+            return words.isEmpty() ? null : words.values().iterator().next();
+        }
+        BitSet ids = new BitSet();
+        for (Postings list : words.values()) {
+            for (int i = 0; i < list.size; i++) {
+                ids.set(list.ids[i]);
+            }
+        }
+        Postings union = new Postings();
+        union.ids = ids.stream().toArray();
+        union.size = union.ids.length;
+        return union;
+    }
+
+    /**
+     * Checks if an id is in every one of some lists.
+     * @param lists the lists.
+     * @param id the id.
+     * @return true if every list contains the id.
+     */
+    private boolean inAll(List<Postings> lists, int id) {
+        for (int k = 1; k < lists.size(); k++) {
+            if (!lists.get(k).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks if a list of words contains each of some phrases.
+     * @param words the words.
+     * @param phrases the phrases, each a list of words.
+     * @return true if every phrase appears in the words.
+     */
+    private boolean containsPhrases(List<String> words, List<List<String>> phrases) {
+        for (List<String> phrase : phrases) {
+            if (Collections.indexOfSubList(words, phrase) == -1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds the end of a line.
+     * @param input the text.
+     * @param start the start of the line.
+     * @return the index of the line break ending the line, or the length of the text.
+     */
+    private int lineEnd(String input, int start) {
+        int end = input.indexOf('\n', start);
+        return end == -1 ? input.length() : end;
+    }
+
+}
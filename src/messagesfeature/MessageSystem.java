@@ -26,16 +26,19 @@ public class MessageSystem{
     /**
      * Constructs the message system.
      * @param data the data for the file reading
+     * @param indexData the saved search index of the messages, or null if there is none
      * @param userHandler the userhandler object
      * @param eventHandler the eventhandler object
      * @param messageHandler the messagehandler object
      */
-    public MessageSystem(String data, UserHandler userHandler, EventHandler eventHandler,
+    public MessageSystem(String data, String indexData, UserHandler userHandler, EventHandler eventHandler,
                          MessageHandler messageHandler){
         this.userHandler = userHandler;
         this.eventHandler = eventHandler;
         this.messageHandler = messageHandler;
+        messageHandler.indexReader(indexData);
         this.fileReader(data);
+        messageHandler.checkIndex();
     }
 
     /**
@@ -129,6 +132,7 @@ public class MessageSystem{
     public void sendMessage(Integer convoID, String content){
         LocalDateTime timestamp = LocalDateTime.now();
         this.sendMessageToConvo(convoID, getUsername(), content, 0, timestamp);
+        messageHandler.setConvoasNewMessage(getUsername(), convoID);
     }
 
     /**
@@ -138,6 +142,7 @@ public class MessageSystem{
     public void reply(Integer convoId, String content, Integer parentId){
         LocalDateTime timestamp = LocalDateTime.now();
         this.sendMessageToConvo(convoId, getUsername(), content, parentId, timestamp);
+        messageHandler.setConvoasNewMessage(getUsername(), convoId);
     }
 
     /**
@@ -174,6 +179,31 @@ public class MessageSystem{
         return messageHandler.getUserReadConversations(getUsername());
     }
 
+    /**
+     * Searches the active messages of the conversations the current user is in
+     * @param query words, word prefixes ending with * and phrases in double quotes, all of which must match
+     * @return a list of the IDs of the matching messages, oldest first
+     */
+    public List<Integer> searchMessages(String query){
+        return messageHandler.searchMessages(getUsername(), query);
+    }
+
+    /**
+     * Method calls the Persistence class to update the file which stores the search index of Messages.
+     * @return the string of information to save to the file.
+     */
+    public String indexWriter(){
+        return messageHandler.indexWriter();
+    }
+
+    /**
+     * Returns the number of conversations the current user is in but has not read
+     * @return the number of unread conversations
+     */
+    public int getUnreadCount(){
+        return messageHandler.getUnreadCount(getUsername());
+    }
+
     /**
      * Sets conversation as read by the current user.
      * @param convoId id of the conversation being set as read.
@@ -260,9 +290,10 @@ public class MessageSystem{
      * @param content String of content of the message.
      * @param parentId Id value of the message that is being replied to.
      * @param timestamp Time when the message was sent.
+     * @return Id value of the message sent.
      */
-    public void sendMessageToConvo(int convoId, String sender, String content, int parentId, LocalDateTime timestamp) {
-        messageHandler.createMessage(content, sender, parentId, timestamp, convoId);
+    public int sendMessageToConvo(int convoId, String sender, String content, int parentId, LocalDateTime timestamp) {
+        return messageHandler.createMessage(content, sender, parentId, timestamp, convoId);
     }
 
 
@@ -335,9 +366,9 @@ public class MessageSystem{
     public void readMessage(String [] messageInfo, Integer convoId) {
         String dateTime = messageInfo[4].replace("T", " ");
         LocalDateTime passedin_time = LocalDateTime.parse(dateTime, DateTimeFormatter.ofPattern(DATE_FORMAT));
-        sendMessageToConvo(convoId, messageInfo[2], messageInfo[1], Integer.parseInt(messageInfo[3]),
+        // messages are given new ids as they are read in, so the saved id is not used
+        int messageId = sendMessageToConvo(convoId, messageInfo[2], messageInfo[1], Integer.parseInt(messageInfo[3]),
                 passedin_time);
-        Integer messageId = Integer.parseInt(messageInfo[0]);
         if(messageInfo.length == (6)){
             messageHandler.archiveMessage(messageId, convoId);
         }